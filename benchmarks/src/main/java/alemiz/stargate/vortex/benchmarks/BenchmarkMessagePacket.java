@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import alemiz.stargate.protocol.types.PacketHelper;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(doNotUseGetters = true, callSuper = true)
+public class BenchmarkMessagePacket extends VortexMessagePacket {
+    public static final short PACKET_ID = 100;
+
+    private String message;
+
+    @Override
+    public void encode(ByteBuf buffer) {
+        PacketHelper.writeString(buffer, this.message);
+    }
+
+    @Override
+    public void decode(ByteBuf buffer) {
+        this.message = PacketHelper.readString(buffer);
+    }
+
+    @Override
+    public short getPacketId() {
+        return PACKET_ID;
+    }
+}
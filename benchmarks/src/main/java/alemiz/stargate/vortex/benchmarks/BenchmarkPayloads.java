@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import java.util.SplittableRandom;
+
+public class BenchmarkPayloads {
+
+    private static final String[] KEYS = {"player", "server", "action", "position", "world", "uuid", "timestamp", "message"};
+
+    /**
+     * Generates JSON-like text which compresses similarly to usual message payloads.
+     * The same size always produces the same payload.
+     * @param size length of the payload in characters
+     * @return generated payload
+     */
+    public static String text(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        StringBuilder builder = new StringBuilder(size + 32);
+        builder.append('{');
+        while (builder.length() < size) {
+            builder.append('"').append(KEYS[random.nextInt(KEYS.length)]).append("\":\"");
+            int length = 4 + random.nextInt(16);
+            for (int i = 0; i < length; i++) {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+            builder.append("\",");
+        }
+        builder.setLength(size);
+        return builder.toString();
+    }
+}
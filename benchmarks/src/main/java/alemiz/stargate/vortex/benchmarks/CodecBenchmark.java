@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import alemiz.stargate.vortex.VortexServer;
+import alemiz.stargate.vortex.common.compression.ChannelDictionaries;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.metrics.LatencyTracker;
+import alemiz.stargate.vortex.common.metrics.NodeMetrics;
+import alemiz.stargate.vortex.common.pipeline.ChannelFlowControl;
+import alemiz.stargate.vortex.common.pipeline.ChannelHeartbeat;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketDecoder;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding of single message packet with each compression method.
+ * Run with "-prof gc" to see bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"NO_COMPRESS", "ZSTANDARD"})
+    public CompressionEnum compression;
+
+    @Param({"64", "512", "4096", "32768"})
+    public int payloadSize;
+
+    private final ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    private CompressionPolicy policy;
+    private BenchmarkMessagePacket packet;
+    private VortexGatePacket frame;
+    private EmbeddedChannel decoderChannel;
+
+    @Setup
+    public void setup() {
+        VortexServer server = EmbeddedNodes.createServer(this.compression, false);
+        // Compress every packet, so each compression method is measured across all sizes
+        server.getSettings().setCompressionThreshold(0);
+        this.policy = server.getCompressionPolicy();
+
+        this.packet = new BenchmarkMessagePacket();
+        this.packet.setTopic("benchmark");
+        this.packet.setSenderNode("benchmark-node");
+        this.packet.setMessage(BenchmarkPayloads.text(this.payloadSize));
+
+        this.frame = VortexPacketEncoder.encodePacket(this.alloc, this.packet, this.policy, null);
+        // Decoder records only counters of the node metrics, so no node is needed
+        this.decoderChannel = new EmbeddedChannel();
+        this.decoderChannel.pipeline().addLast(new VortexPacketDecoder(server.getPacketPool(), true, false, this.policy, new ChannelDictionaries(),
+                new ChannelHeartbeat(new LatencyTracker(), 50, 5000, TimeUnit.MILLISECONDS), new ChannelFlowControl(this.decoderChannel.eventLoop()),
+                new NodeMetrics(null), server.getMetrics()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.frame.release();
+        this.decoderChannel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encode() {
+        VortexGatePacket frame = VortexPacketEncoder.encodePacket(this.alloc, this.packet, this.policy, null);
+        int size = frame.getPayload().readableBytes();
+        frame.release();
+        return size;
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        this.decoderChannel.writeInbound(this.frame.retainedDuplicate());
+        blackhole.consume(this.decoderChannel.readInbound());
+    }
+}
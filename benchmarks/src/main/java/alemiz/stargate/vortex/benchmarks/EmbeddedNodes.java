@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import alemiz.stargate.pipeline.UnhandledPacketConsumer;
+import alemiz.stargate.server.ServerSession;
+import alemiz.stargate.vortex.VortexServer;
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.data.VortexSettings;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates Vortex server and nodes running on EmbeddedChannel, so routing can be measured without network.
+ * Server is never started.
+ */
+public class EmbeddedNodes {
+
+    private static final AtomicInteger PORT_ALLOCATOR = new AtomicInteger(20000);
+
+    public static VortexServer createServer(CompressionEnum compression, boolean relayMessages) {
+        VortexSettings settings = new VortexSettings();
+        settings.setPassword("benchmark");
+        settings.setPort(0);
+        settings.setCompression(compression);
+        settings.setRelayMessages(relayMessages);
+
+        VortexServer server = new VortexServer(settings);
+        server.getPacketPool().registerPacket(BenchmarkMessagePacket.class, BenchmarkMessagePacket.PACKET_ID, BenchmarkMessagePacket::new);
+        return server;
+    }
+
+    public static EmbeddedChannel createChannel() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        // Vortex handlers are added before StarGate handler of unhandled packets
+        channel.pipeline().addLast(UnhandledPacketConsumer.NAME, new ChannelInboundHandlerAdapter());
+        return channel;
+    }
+
+    public static ServerSession createSession(EmbeddedChannel channel, String name) {
+        // Stub only mock does not record invocations, so it can be used in measured code
+        ServerSession session = Mockito.mock(ServerSession.class, Mockito.withSettings().stubOnly());
+        Mockito.when(session.getChannel()).thenReturn(channel);
+        Mockito.when(session.getSessionName()).thenReturn(name);
+        Mockito.when(session.getAddress()).thenReturn(new InetSocketAddress("127.0.0.1", PORT_ALLOCATOR.incrementAndGet()));
+        return session;
+    }
+
+    /**
+     * Runs pending flush tasks and releases all written messages.
+     * @param channel channel of the node
+     * @return number of written messages
+     */
+    public static int drain(EmbeddedChannel channel) {
+        channel.runPendingTasks();
+
+        int count = 0;
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ReferenceCountUtil.release(msg);
+            count++;
+        }
+        return count;
+    }
+}
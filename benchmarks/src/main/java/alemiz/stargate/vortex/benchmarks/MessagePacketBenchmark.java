@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures string encoding and decoding of VortexMessagePacket header and body without compression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagePacketBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int messageSize;
+
+    private BenchmarkMessagePacket packet;
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() {
+        this.packet = new BenchmarkMessagePacket();
+        this.packet.setTargetNode("lobby-1");
+        this.packet.setTopic("player-events");
+        this.packet.setSenderNode("proxy-1");
+        this.packet.setMessage(BenchmarkPayloads.text(this.messageSize));
+
+        this.buffer = PooledByteBufAllocator.DEFAULT.directBuffer();
+        this.packet.encodePayload(this.buffer);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.buffer.release();
+    }
+
+    @Benchmark
+    public int encode() {
+        this.buffer.clear();
+        this.packet.encodePayload(this.buffer);
+        return this.buffer.writerIndex();
+    }
+
+    @Benchmark
+    public BenchmarkMessagePacket decode() {
+        BenchmarkMessagePacket packet = new BenchmarkMessagePacket();
+        this.buffer.readerIndex(0);
+        packet.decodePayload(this.buffer);
+        return packet;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacketPoolBenchmark {
+
+    private VortexPacketPool packetPool;
+
+    @Setup
+    public void setup() {
+        this.packetPool = new VortexPacketPool();
+        this.packetPool.registerPacket(BenchmarkMessagePacket.class, BenchmarkMessagePacket.PACKET_ID, BenchmarkMessagePacket::new);
+    }
+
+    @Benchmark
+    public VortexPacket constructById() {
+        return this.packetPool.constructPacket(BenchmarkMessagePacket.PACKET_ID);
+    }
+
+    @Benchmark
+    public VortexPacket constructByClass() {
+        return this.packetPool.constructPacket(BenchmarkMessagePacket.class);
+    }
+}
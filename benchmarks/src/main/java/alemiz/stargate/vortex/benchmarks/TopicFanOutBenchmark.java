@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks;
+
+import alemiz.stargate.vortex.VortexServer;
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures routing of single topic message received by master node to all topic subscribers.
+ * Frame is passed through the whole Vortex pipeline of the publisher and encoded frames are collected
+ * from EmbeddedChannel of each subscriber. Run with "-prof gc" to see bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopicFanOutBenchmark {
+    private static final String TOPIC = "benchmark-topic";
+
+    @Param({"1", "10", "100"})
+    public int subscribers;
+
+    @Param({"NO_COMPRESS", "ZSTANDARD"})
+    public CompressionEnum compression;
+
+    @Param({"256", "4096"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean relayMessages;
+
+    private EmbeddedChannel publisherChannel;
+    private final List<EmbeddedChannel> subscriberChannels = new ArrayList<>();
+    private VortexGatePacket frame;
+
+    @Setup
+    public void setup() {
+        VortexServer server = EmbeddedNodes.createServer(this.compression, this.relayMessages);
+        String typeName = VortexServer.DEFAULT_MASTER_NODE.getName();
+
+        this.publisherChannel = EmbeddedNodes.createChannel();
+        server.createNewNode(typeName, Collections.emptyList(), EmbeddedNodes.createSession(this.publisherChannel, "publisher"));
+
+        for (int i = 0; i < this.subscribers; i++) {
+            EmbeddedChannel channel = EmbeddedNodes.createChannel();
+            server.createNewNode(typeName, Collections.singletonList(TOPIC), EmbeddedNodes.createSession(channel, "subscriber-" + i));
+            this.subscriberChannels.add(channel);
+        }
+
+        BenchmarkMessagePacket packet = new BenchmarkMessagePacket();
+        packet.setTopic(TOPIC);
+        packet.setSenderNode("publisher");
+        packet.setMessage(BenchmarkPayloads.text(this.payloadSize));
+        this.frame = VortexPacketEncoder.encodePacket(PooledByteBufAllocator.DEFAULT, packet, server.getCompressionPolicy(), null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.frame.release();
+        this.publisherChannel.finishAndReleaseAll();
+        for (EmbeddedChannel channel : this.subscriberChannels) {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Benchmark
+    public int publish() {
+        this.publisherChannel.writeInbound(this.frame.retainedDuplicate());
+
+        int received = 0;
+        for (EmbeddedChannel channel : this.subscriberChannels) {
+            received += EmbeddedNodes.drain(channel);
+        }
+        EmbeddedNodes.drain(this.publisherChannel);
+        return received;
+    }
+}
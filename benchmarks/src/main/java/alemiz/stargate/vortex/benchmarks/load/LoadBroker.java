@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.VortexListener;
+import alemiz.stargate.vortex.VortexServer;
+import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.node.VortexNode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Broker process of the load test. Runs in separate JVM, because client and server
+ * register Vortex node types with the same names.
+ * Reports its CPU usage and allocation rate to the standard output every second.
+ */
+public class LoadBroker {
+
+    public static final String READY = "@@READY";
+    public static final String STATS = "@@BROKER";
+
+    private static final com.sun.management.OperatingSystemMXBean OS_BEAN =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        VortexSettings settings = new VortexSettings();
+        settings.setPassword(options.getPassword());
+        settings.setPort(options.getPort());
+        settings.setCompression(options.getCompression());
+        settings.setRelayMessages(options.isRelayMessages());
+        settings.setBatchPackets(options.isBatchPackets());
+
+        AtomicInteger connectedNodes = new AtomicInteger();
+        VortexServer server = new VortexServer(settings);
+        LoadTestListener.registerPackets(server.getPacketPool());
+        server.setListener(new VortexListener() {
+            @Override
+            public void onNodeCreated(InetSocketAddress address, VortexNode node) {
+                connectedNodes.incrementAndGet();
+            }
+
+            @Override
+            public void onNodeDisconnected(VortexNode node) {
+                connectedNodes.decrementAndGet();
+            }
+        });
+        server.start();
+        System.out.println(READY);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long[] lastAllocated = {allocatedBytes()};
+        scheduler.scheduleAtFixedRate(() -> {
+            long allocated = allocatedBytes();
+            long allocationRate = Math.max(0, allocated - lastAllocated[0]);
+            lastAllocated[0] = allocated;
+            System.out.println(STATS + " " + OS_BEAN.getProcessCpuLoad() + " " + allocationRate + " " + connectedNodes.get());
+        }, 1, 1, TimeUnit.SECONDS);
+
+        // Coordinator closes standard input when the test is finished
+        while (System.in.read() != -1) {
+            // Ignore any input
+        }
+        scheduler.shutdownNow();
+        server.shutdown();
+        System.exit(0);
+    }
+
+    private static long allocatedBytes() {
+        long total = 0;
+        for (long allocated : THREAD_BEAN.getThreadAllocatedBytes(THREAD_BEAN.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * End-to-end load test of Vortex broker over loopback TCP.
+ * Starts broker process and configured number of worker processes which connect simulated master and child nodes,
+ * drives the message mix and prints throughput, latency and broker resource usage every second.
+ * Usage: java -cp benchmarks.jar alemiz.stargate.vortex.benchmarks.load.LoadTest --nodes=2000 --workers=4
+ */
+public class LoadTest {
+
+    private static final long BROKER_START_TIMEOUT_SECONDS = 60;
+    private static final long WORKER_CONNECT_TIMEOUT_SECONDS = 600;
+
+    private final LoadTestOptions options;
+    private final LoadTestReport report = new LoadTestReport();
+    private final List<Process> processes = new ArrayList<>();
+
+    public LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest(LoadTestOptions.parse(args));
+        Runtime.getRuntime().addShutdownHook(new Thread(loadTest::destroy));
+        loadTest.run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        CountDownLatch brokerReady = new CountDownLatch(1);
+        Process broker = this.spawn(LoadBroker.class, this.options.getBrokerJvmArgs(), this.options.getArguments());
+        this.readOutput(broker, "broker", line -> {
+            if (line.equals(LoadBroker.READY)) {
+                brokerReady.countDown();
+            } else if (line.startsWith(LoadBroker.STATS)) {
+                String[] parts = line.split(" ");
+                this.report.onBrokerStats(Double.parseDouble(parts[1]), Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+            }
+        });
+
+        if (!brokerReady.await(BROKER_START_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Broker did not start in time");
+        }
+        System.out.println("Broker started, connecting " + this.options.getNodes() + " nodes using " + this.options.getWorkers() + " workers");
+
+        CountDownLatch workersReady = new CountDownLatch(this.options.getWorkers());
+        List<Process> workers = new ArrayList<>();
+        for (int i = 0; i < this.options.getWorkers(); i++) {
+            Process worker = this.spawn(LoadWorker.class, this.options.getWorkerJvmArgs(), this.options.getArguments("--worker-index=" + i));
+            this.readOutput(worker, "worker-" + i, line -> {
+                if (line.equals(LoadWorker.READY)) {
+                    workersReady.countDown();
+                } else if (line.startsWith(LoadWorker.INTERVAL)) {
+                    String[] parts = line.split(" ");
+                    this.report.onWorkerInterval(Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]),
+                            Long.parseLong(parts[4]), LoadWorker.decodeHistogram(parts[5]), LoadWorker.decodeHistogram(parts[6]));
+                }
+            });
+            workers.add(worker);
+        }
+
+        if (!workersReady.await(WORKER_CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Workers did not connect in time");
+        }
+        System.out.println("All nodes connected, starting traffic");
+
+        for (Process worker : workers) {
+            OutputStream input = worker.getOutputStream();
+            input.write((LoadWorker.START + "\n").getBytes(StandardCharsets.UTF_8));
+            input.flush();
+        }
+
+        int totalSeconds = this.options.getWarmupSeconds() + this.options.getDurationSeconds();
+        for (int second = 1; second <= totalSeconds; second++) {
+            Thread.sleep(1000);
+            if (second == this.options.getWarmupSeconds() + 1) {
+                this.report.startMeasuring();
+            }
+            this.report.printInterval(second);
+        }
+        this.report.printSummary();
+        this.destroy();
+    }
+
+    private Process spawn(Class<?> mainClass, String jvmArgs, String[] args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.trim().isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(Arrays.asList(args));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        synchronized (this.processes) {
+            this.processes.add(process);
+        }
+        return process;
+    }
+
+    private void readOutput(Process process, String name, Consumer<String> handler) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("@@")) {
+                        handler.accept(line);
+                    } else {
+                        System.out.println("[" + name + "] " + line);
+                    }
+                }
+            } catch (IOException e) {
+                // Process was terminated
+            }
+        }, "load-test-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void destroy() {
+        synchronized (this.processes) {
+            for (Process process : this.processes) {
+                try {
+                    // Closed input tells the process to shutdown gracefully
+                    process.getOutputStream().close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+
+            for (Process process : this.processes) {
+                try {
+                    if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroyForcibly();
+                }
+            }
+            this.processes.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
+import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+
+public interface LoadTestListener extends VortexPacketListener {
+
+    static void registerPackets(VortexPacketPool packetPool) {
+        packetPool.registerPacket(LoadTestMessagePacket.class, LoadTestMessagePacket.PACKET_ID, LoadTestMessagePacket::new);
+        packetPool.registerPacket(LoadTestRpcPacket.class, LoadTestRpcPacket.PACKET_ID, LoadTestRpcPacket::new);
+    }
+
+    boolean handleMessage(LoadTestMessagePacket packet);
+
+    boolean handleRpc(LoadTestRpcPacket packet);
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@ToString(callSuper = true, exclude = {"payload"})
+@EqualsAndHashCode(doNotUseGetters = true, callSuper = true)
+public class LoadTestMessagePacket extends VortexMessagePacket {
+    public static final short PACKET_ID = 110;
+
+    /**
+     * System.nanoTime() of the sender. Processes on the same machine share the monotonic clock.
+     */
+    private long sendTime;
+    private byte[] payload;
+
+    @Override
+    public void encode(ByteBuf buffer) {
+        buffer.writeLong(this.sendTime);
+        buffer.writeInt(this.payload.length);
+        buffer.writeBytes(this.payload);
+    }
+
+    @Override
+    public void decode(ByteBuf buffer) {
+        this.sendTime = buffer.readLong();
+        this.payload = new byte[buffer.readInt()];
+        buffer.readBytes(this.payload);
+    }
+
+    @Override
+    public boolean handle(VortexPacketListener listener) {
+        return listener instanceof LoadTestListener && ((LoadTestListener) listener).handleMessage(this);
+    }
+
+    @Override
+    public short getPacketId() {
+        return PACKET_ID;
+    }
+
+    @Override
+    public int getSizeHint() {
+        return 12 + this.payload.length;
+    }
+}
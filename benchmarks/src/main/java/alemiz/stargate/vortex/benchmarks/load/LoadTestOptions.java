@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import lombok.Data;
+
+import java.util.Arrays;
+
+/**
+ * Options of the load test parsed from "--name=value" arguments.
+ * The same arguments are passed to broker and worker processes.
+ */
+@Data
+public class LoadTestOptions {
+
+    private int nodes = 500;
+    private double masterRatio = 0.1;
+    private int workers = 1;
+    private int topics = 16;
+    /**
+     * Messages sent by each node per second.
+     */
+    private int rate = 10;
+    private int payloadSize = 256;
+    private int warmupSeconds = 5;
+    private int durationSeconds = 30;
+    private int port = 27015;
+    private int protocolVersion = 2;
+    private String password = "load-test";
+    private CompressionEnum compression = CompressionEnum.ZSTANDARD;
+    private boolean relayMessages = false;
+    private boolean batchPackets = false;
+    private String brokerJvmArgs = "";
+    private String workerJvmArgs = "";
+    private int workerIndex = -1;
+
+    private int topicWeight = 60;
+    private int directWeight = 20;
+    private int broadcastWeight = 10;
+    private int rpcWeight = 10;
+
+    private final String[] arguments;
+
+    private LoadTestOptions(String[] arguments) {
+        this.arguments = arguments;
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions(args);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected argument in format --name=value: " + arg);
+            }
+
+            int index = arg.indexOf('=');
+            String name = arg.substring(2, index);
+            String value = arg.substring(index + 1);
+            switch (name) {
+                case "nodes":
+                    options.nodes = Integer.parseInt(value);
+                    break;
+                case "master-ratio":
+                    options.masterRatio = Double.parseDouble(value);
+                    break;
+                case "workers":
+                    options.workers = Integer.parseInt(value);
+                    break;
+                case "topics":
+                    options.topics = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    options.rate = Integer.parseInt(value);
+                    break;
+                case "payload-size":
+                    options.payloadSize = Integer.parseInt(value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "port":
+                    options.port = Integer.parseInt(value);
+                    break;
+                case "protocol-version":
+                    options.protocolVersion = Integer.parseInt(value);
+                    break;
+                case "password":
+                    options.password = value;
+                    break;
+                case "compression":
+                    options.compression = CompressionEnum.valueOf(value.toUpperCase());
+                    break;
+                case "relay-messages":
+                    options.relayMessages = Boolean.parseBoolean(value);
+                    break;
+                case "batch-packets":
+                    options.batchPackets = Boolean.parseBoolean(value);
+                    break;
+                case "broker-jvm":
+                    options.brokerJvmArgs = value;
+                    break;
+                case "worker-jvm":
+                    options.workerJvmArgs = value;
+                    break;
+                case "worker-index":
+                    options.workerIndex = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    options.parseMix(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Parses message mix in format "topic=60,direct=20,broadcast=10,rpc=10".
+     * Missing kinds are not sent.
+     */
+    private void parseMix(String mix) {
+        this.topicWeight = this.directWeight = this.broadcastWeight = this.rpcWeight = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            switch (parts[0].trim()) {
+                case "topic":
+                    this.topicWeight = weight;
+                    break;
+                case "direct":
+                    this.directWeight = weight;
+                    break;
+                case "broadcast":
+                    this.broadcastWeight = weight;
+                    break;
+                case "rpc":
+                    this.rpcWeight = weight;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown message kind " + parts[0]);
+            }
+        }
+    }
+
+    public int getWorkerNodes(int workerIndex) {
+        int nodes = this.nodes / this.workers;
+        return workerIndex < this.nodes % this.workers ? nodes + 1 : nodes;
+    }
+
+    public int getWorkerMasters(int workerIndex) {
+        return Math.max(1, (int) Math.round(this.getWorkerNodes(workerIndex) * this.masterRatio));
+    }
+
+    public String[] getArguments(String... extra) {
+        String[] args = Arrays.copyOf(this.arguments, this.arguments.length + extra.length);
+        System.arraycopy(extra, 0, args, this.arguments.length, extra.length);
+        return args;
+    }
+}
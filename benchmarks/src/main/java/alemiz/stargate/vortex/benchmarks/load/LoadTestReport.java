@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Aggregates statistics reported by the broker and all workers.
+ * Statistics reported during warmup are printed but not included in the summary.
+ */
+public class LoadTestReport {
+
+    private final IntervalStats interval = new IntervalStats();
+    private final IntervalStats total = new IntervalStats();
+    private boolean measuring = false;
+    private int measuredSeconds;
+
+    private double brokerCpu;
+    private long brokerAllocationRate;
+    private int brokerNodes;
+    private double brokerCpuSum;
+    private double brokerCpuMax;
+    private long brokerAllocationSum;
+    private int brokerSamples;
+
+    public synchronized void onWorkerInterval(long sent, long received, long rpcs, long failedRpcs, Histogram latency, Histogram rpcLatency) {
+        this.interval.add(sent, received, rpcs, failedRpcs, latency, rpcLatency);
+        if (this.measuring) {
+            this.total.add(sent, received, rpcs, failedRpcs, latency, rpcLatency);
+        }
+    }
+
+    public synchronized void onBrokerStats(double cpu, long allocationRate, int nodes) {
+        this.brokerCpu = cpu;
+        this.brokerAllocationRate = allocationRate;
+        this.brokerNodes = nodes;
+        if (this.measuring && cpu >= 0) {
+            this.brokerCpuSum += cpu;
+            this.brokerCpuMax = Math.max(this.brokerCpuMax, cpu);
+            this.brokerAllocationSum += allocationRate;
+            this.brokerSamples++;
+        }
+    }
+
+    public synchronized void startMeasuring() {
+        this.measuring = true;
+    }
+
+    /**
+     * Prints statistics collected during the last second and resets them.
+     * @param elapsedSeconds seconds since the traffic was started
+     */
+    public synchronized void printInterval(int elapsedSeconds) {
+        if (this.measuring) {
+            this.measuredSeconds++;
+        }
+
+        IntervalStats stats = this.interval;
+        System.out.println(String.format("%5ds %s | sent %9d/s recv %9d/s rpc %7d/s failed %5d | latency p50 %s p99 %s p999 %s | rpc p99 %s | broker cpu %5.1f%% alloc %8.1f MB/s nodes %d",
+                elapsedSeconds, this.measuring ? "    " : "warm", stats.sent, stats.received, stats.rpcs, stats.failedRpcs,
+                formatNanos(stats.latency, 50), formatNanos(stats.latency, 99), formatNanos(stats.latency, 99.9),
+                formatNanos(stats.rpcLatency, 99), this.brokerCpu * 100, this.brokerAllocationRate / 1024.0 / 1024.0, this.brokerNodes));
+        stats.reset();
+    }
+
+    public synchronized void printSummary() {
+        IntervalStats stats = this.total;
+        int seconds = Math.max(1, this.measuredSeconds);
+        int samples = Math.max(1, this.brokerSamples);
+
+        System.out.println();
+        System.out.println("Measured " + this.measuredSeconds + "s with " + this.brokerNodes + " connected nodes");
+        System.out.println(String.format("Sent:      %12d (%d msgs/s)", stats.sent, stats.sent / seconds));
+        System.out.println(String.format("Received:  %12d (%d msgs/s)", stats.received, stats.received / seconds));
+        System.out.println(String.format("RPCs:      %12d (%d rpc/s, %d failed)", stats.rpcs, stats.rpcs / seconds, stats.failedRpcs));
+        System.out.println(String.format("Latency:   p50 %s p99 %s p999 %s max %s", formatNanos(stats.latency, 50),
+                formatNanos(stats.latency, 99), formatNanos(stats.latency, 99.9), formatNanos(stats.latency, 100)));
+        System.out.println(String.format("RPC:       p50 %s p99 %s p999 %s max %s", formatNanos(stats.rpcLatency, 50),
+                formatNanos(stats.rpcLatency, 99), formatNanos(stats.rpcLatency, 99.9), formatNanos(stats.rpcLatency, 100)));
+        System.out.println(String.format("Broker:    cpu avg %.1f%% max %.1f%%, allocation avg %.1f MB/s", this.brokerCpuSum / samples * 100,
+                this.brokerCpuMax * 100, this.brokerAllocationSum / (double) samples / 1024.0 / 1024.0));
+    }
+
+    private static String formatNanos(Histogram histogram, double percentile) {
+        if (histogram.getTotalCount() == 0) {
+            return "      -";
+        }
+        return String.format("%7.3fms", histogram.getValueAtPercentile(percentile) / 1_000_000.0);
+    }
+
+    private static class IntervalStats {
+        private long sent;
+        private long received;
+        private long rpcs;
+        private long failedRpcs;
+        private final Histogram latency = new Histogram(3);
+        private final Histogram rpcLatency = new Histogram(3);
+
+        private void add(long sent, long received, long rpcs, long failedRpcs, Histogram latency, Histogram rpcLatency) {
+            this.sent += sent;
+            this.received += received;
+            this.rpcs += rpcs;
+            this.failedRpcs += failedRpcs;
+            this.latency.add(latency);
+            this.rpcLatency.add(rpcLatency);
+        }
+
+        private void reset() {
+            this.sent = 0;
+            this.received = 0;
+            this.rpcs = 0;
+            this.failedRpcs = 0;
+            this.latency.reset();
+            this.rpcLatency.reset();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessageResponsePacket;
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@ToString(callSuper = true, exclude = {"payload"})
+@EqualsAndHashCode(doNotUseGetters = true, callSuper = true)
+public class LoadTestRpcPacket extends VortexMessageResponsePacket {
+    public static final short PACKET_ID = 111;
+
+    private boolean reply;
+    private long sendTime;
+    private byte[] payload;
+
+    @Override
+    public void encode(ByteBuf buffer) {
+        buffer.writeBoolean(this.reply);
+        buffer.writeLong(this.sendTime);
+        buffer.writeInt(this.payload.length);
+        buffer.writeBytes(this.payload);
+    }
+
+    @Override
+    public void decode(ByteBuf buffer) {
+        this.reply = buffer.readBoolean();
+        this.sendTime = buffer.readLong();
+        this.payload = new byte[buffer.readInt()];
+        buffer.readBytes(this.payload);
+    }
+
+    @Override
+    public boolean handle(VortexPacketListener listener) {
+        // Replies are not handled by listeners, so they complete the pending response promise
+        return !this.reply && listener instanceof LoadTestListener && ((LoadTestListener) listener).handleRpc(this);
+    }
+
+    @Override
+    public short getPacketId() {
+        return PACKET_ID;
+    }
+}
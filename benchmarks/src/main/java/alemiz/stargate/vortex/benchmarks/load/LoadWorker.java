@@ -0,0 +1,332 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.benchmarks.load;
+
+import alemiz.stargate.vortex.benchmarks.BenchmarkPayloads;
+import alemiz.stargate.vortex.client.VortexClient;
+import alemiz.stargate.vortex.client.VortexListener;
+import alemiz.stargate.vortex.client.data.VortexClientSettings;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.packet.VortexResponse;
+import io.netty.channel.ChannelFuture;
+import io.netty.util.concurrent.Promise;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Worker process of the load test. Connects its share of master and child nodes to the broker,
+ * drives the configured message mix once started and reports interval statistics to the standard output.
+ */
+public class LoadWorker {
+
+    public static final String READY = "@@WORKER_READY";
+    public static final String INTERVAL = "@@INTERVAL";
+    public static final String START = "START";
+
+    private static final int CONNECT_CHUNK = 100;
+    private static final long CONNECT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long RPC_TIMEOUT_SECONDS = 10;
+    private static final int TICKS_PER_SECOND = 100;
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    private final LoadTestOptions options;
+    private final int workerIndex;
+    private final byte[] payload;
+
+    private final List<VortexClient> masters = new ArrayList<>();
+    private final List<VortexClient> children = new ArrayList<>();
+    private final List<VortexClient> allClients = new ArrayList<>();
+
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder completedRpcs = new LongAdder();
+    private final LongAdder failedRpcs = new LongAdder();
+    private final Recorder messageLatency = new Recorder(3);
+    private final Recorder rpcLatency = new Recorder(3);
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final SplittableRandom random = new SplittableRandom();
+    private double sendBudget;
+
+    public LoadWorker(LoadTestOptions options) {
+        this.options = options;
+        this.workerIndex = options.getWorkerIndex();
+        this.payload = BenchmarkPayloads.text(options.getPayloadSize()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadWorker worker = new LoadWorker(LoadTestOptions.parse(args));
+        worker.connect();
+        System.out.println(READY);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals(START)) {
+                worker.start();
+            }
+        }
+
+        // Coordinator closes standard input when the test is finished
+        worker.shutdown();
+        System.exit(0);
+    }
+
+    public void connect() throws InterruptedException {
+        int nodes = this.options.getWorkerNodes(this.workerIndex);
+        int masterCount = this.options.getWorkerMasters(this.workerIndex);
+
+        // Master nodes must be connected before child nodes can register to them
+        for (int i = 0; i < masterCount; i++) {
+            List<String> topics = Collections.singletonList(topicName(i));
+            this.masters.add(this.createClient(this.masterName(i), VortexClient.DEFAULT_MASTER_NODE.getName(), topics, null));
+        }
+        this.connectAll(this.masters);
+
+        for (int i = 0; i < nodes - masterCount; i++) {
+            String name = "node-" + this.workerIndex + "-" + i;
+            List<String> topics = Arrays.asList(topicName(i + masterCount), rpcTopicName(name));
+            this.children.add(this.createClient(name, VortexClient.DEFAULT_CHILD_NODE.getName(), topics, this.masterName(i % masterCount)));
+        }
+        this.connectAll(this.children);
+
+        this.allClients.addAll(this.masters);
+        this.allClients.addAll(this.children);
+    }
+
+    private VortexClient createClient(String name, String vortexType, List<String> topics, String masterNode) {
+        VortexClientSettings settings = new VortexClientSettings();
+        settings.setClientName(name);
+        settings.setRemoteAddress(new InetSocketAddress("127.0.0.1", this.options.getPort()));
+        settings.setPassword(this.options.getPassword());
+        settings.setProtocolversion(this.options.getProtocolVersion());
+        settings.setCompression(this.options.getCompression());
+        settings.setBatchPackets(this.options.isBatchPackets());
+        settings.setVortexType(vortexType);
+        settings.setSubscribedTopics(topics);
+        if (masterNode != null) {
+            settings.setMasterNodes(Collections.singletonList(masterNode));
+            settings.setPrimaryMasterNode(masterNode);
+        } else {
+            settings.setMasterNodes(Collections.emptyList());
+        }
+
+        VortexClient client = new VortexClient(settings);
+        LoadTestListener.registerPackets(client.getPacketPool());
+        client.setListener(new VortexListener() {
+            @Override
+            public void onNodeCreated(InetSocketAddress address, VortexNode node) {
+                node.addVortexPacketListener(new Receiver(node));
+            }
+        });
+        return client;
+    }
+
+    private void connectAll(List<VortexClient> clients) throws InterruptedException {
+        List<ChannelFuture> futures = new ArrayList<>(CONNECT_CHUNK);
+        for (VortexClient client : clients) {
+            futures.add(client.start());
+            if (futures.size() >= CONNECT_CHUNK) {
+                futures.forEach(ChannelFuture::awaitUninterruptibly);
+                futures.clear();
+            }
+        }
+        futures.forEach(ChannelFuture::awaitUninterruptibly);
+
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        for (VortexClient client : clients) {
+            while (!client.isConnected()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Client " + client.getSettings().getClientName() + " did not connect in time");
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    public void start() {
+        long tickMicros = TimeUnit.SECONDS.toMicros(1) / TICKS_PER_SECOND;
+        this.scheduler.scheduleAtFixedRate(this::tick, 0, tickMicros, TimeUnit.MICROSECONDS);
+        this.scheduler.scheduleAtFixedRate(this::report, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+        for (VortexClient client : this.allClients) {
+            if (!client.isClosed()) {
+                client.shutdown();
+            }
+        }
+    }
+
+    private void tick() {
+        this.sendBudget += (double) this.allClients.size() * this.options.getRate() / TICKS_PER_SECOND;
+        int count = (int) this.sendBudget;
+        this.sendBudget -= count;
+
+        for (int i = 0; i < count; i++) {
+            try {
+                this.sendRandomMessage();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    private void sendRandomMessage() {
+        int topicWeight = this.options.getTopicWeight();
+        int directWeight = this.options.getDirectWeight();
+        int broadcastWeight = this.options.getBroadcastWeight();
+        int totalWeight = topicWeight + directWeight + broadcastWeight + this.options.getRpcWeight();
+        if (totalWeight <= 0) {
+            return;
+        }
+
+        int roll = this.random.nextInt(totalWeight);
+        if (roll < topicWeight || this.children.isEmpty()) {
+            LoadTestMessagePacket packet = this.createMessage();
+            packet.setTopic(topicName(this.random.nextInt(this.options.getTopics())));
+            this.send(this.pick(this.allClients), packet);
+        } else if ((roll -= topicWeight) < directWeight) {
+            VortexClient client = this.pick(this.children);
+            LoadTestMessagePacket packet = this.createMessage();
+            packet.setTargetNode(client.getSettings().getPrimaryMasterNode());
+            this.send(client, packet);
+        } else if (roll - directWeight < broadcastWeight) {
+            // Master node broadcasts message without topic to all its child nodes
+            this.send(this.pick(this.masters), this.createMessage());
+        } else {
+            this.sendRpc(this.pick(this.children));
+        }
+    }
+
+    private LoadTestMessagePacket createMessage() {
+        LoadTestMessagePacket packet = new LoadTestMessagePacket();
+        packet.setPayload(this.payload);
+        packet.setSendTime(System.nanoTime());
+        return packet;
+    }
+
+    private void send(VortexClient client, LoadTestMessagePacket packet) {
+        VortexNode node = client.getVortexNode();
+        if (node != null) {
+            node.sendPacket(packet);
+            this.sentMessages.increment();
+        }
+    }
+
+    private void sendRpc(VortexClient client) {
+        VortexNode node = client.getVortexNode();
+        if (node == null) {
+            return;
+        }
+
+        LoadTestRpcPacket packet = new LoadTestRpcPacket();
+        packet.setTargetNode(client.getSettings().getPrimaryMasterNode());
+        packet.setPayload(this.payload);
+        packet.setSendTime(System.nanoTime());
+
+        Promise<VortexResponse> promise = node.sendResponsePacket(packet, RPC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (promise == null) {
+            this.failedRpcs.increment();
+            return;
+        }
+
+        this.sentMessages.increment();
+        long sendTime = packet.getSendTime();
+        promise.addListener(future -> {
+            if (future.isSuccess()) {
+                this.completedRpcs.increment();
+                this.rpcLatency.recordValue(Math.max(0, System.nanoTime() - sendTime));
+            } else {
+                this.failedRpcs.increment();
+            }
+        });
+    }
+
+    private VortexClient pick(List<VortexClient> clients) {
+        return clients.get(this.random.nextInt(clients.size()));
+    }
+
+    private void report() {
+        System.out.println(INTERVAL + " " + this.sentMessages.sumThenReset() + " " + this.receivedMessages.sumThenReset() + " " +
+                this.completedRpcs.sumThenReset() + " " + this.failedRpcs.sumThenReset() + " " +
+                encodeHistogram(this.messageLatency.getIntervalHistogram()) + " " + encodeHistogram(this.rpcLatency.getIntervalHistogram()));
+    }
+
+    private String masterName(int index) {
+        return "master-" + this.workerIndex + "-" + index;
+    }
+
+    private String topicName(int index) {
+        return "load-topic-" + (index % this.options.getTopics());
+    }
+
+    private static String rpcTopicName(String nodeName) {
+        return "load-rpc-" + nodeName;
+    }
+
+    public static String encodeHistogram(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    public static Histogram decodeHistogram(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid histogram", e);
+        }
+    }
+
+    private class Receiver implements LoadTestListener {
+        private final VortexNode node;
+
+        private Receiver(VortexNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public boolean handleMessage(LoadTestMessagePacket packet) {
+            receivedMessages.increment();
+            messageLatency.recordValue(Math.max(0, System.nanoTime() - packet.getSendTime()));
+            return true;
+        }
+
+        @Override
+        public boolean handleRpc(LoadTestRpcPacket packet) {
+            LoadTestRpcPacket reply = new LoadTestRpcPacket();
+            reply.setReply(true);
+            reply.setResponseId(packet.getResponseId());
+            reply.setSendTime(packet.getSendTime());
+            reply.setPayload(EMPTY_PAYLOAD);
+            reply.setTopic(rpcTopicName(packet.getSenderNode()));
+            this.node.sendPacket(reply);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks dictionaries known to the other side of the connection.
+ * Dictionary becomes available once the dictionary packet was written to or received from the channel,
+ * so every frame compressed with it is guaranteed to follow the dictionary on the wire.
+ */
+public class ChannelDictionaries {
+
+    private final Set<Integer> availableDictionaries = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public void markAvailable(int dictionaryId) {
+        this.availableDictionaries.add(dictionaryId);
+    }
+
+    public boolean isAvailable(int dictionaryId) {
+        return this.availableDictionaries.contains(dictionaryId);
+    }
+}
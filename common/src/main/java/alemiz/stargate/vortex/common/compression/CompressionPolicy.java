@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.node.VortexNodeOwner;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMaps;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decides which compression should be used for each encoded packet.
+ * Packets smaller than compression threshold are sent uncompressed. Packet pool can override compression
+ * for specific packet IDs. In adaptive mode compression is disabled for packet types which do not compress well.
+ */
+public class CompressionPolicy {
+
+    private final VortexNodeOwner owner;
+
+    // Copy on write map, new packet types are seen rarely
+    private volatile Short2ObjectMap<CompressionStatistics> statistics = new Short2ObjectOpenHashMap<>();
+
+    private final AtomicInteger dictionaryIdAllocator = new AtomicInteger(0);
+    private volatile Int2ObjectMap<VortexDictionary> dictionaries = new Int2ObjectOpenHashMap<>();
+    private volatile Short2ObjectMap<VortexDictionary> packetDictionaries = new Short2ObjectOpenHashMap<>();
+
+    private volatile DictionaryTrainer dictionaryTrainer;
+    private ExecutorService trainingExecutor;
+    private Consumer<VortexDictionary> dictionaryListener;
+
+    public CompressionPolicy(VortexNodeOwner owner) {
+        this.owner = owner;
+    }
+
+    public CompressionEnum select(short packetId, int size) {
+        VortexSettings settings = this.owner.getSettings();
+        if (settings.getCompression() == CompressionEnum.NO_COMPRESS) {
+            return CompressionEnum.NO_COMPRESS;
+        }
+
+        CompressionEnum override = this.owner.getPacketPool().getPacketCompression(packetId);
+        if (override != null) {
+            return override;
+        }
+
+        if (size < settings.getCompressionThreshold()) {
+            return CompressionEnum.NO_COMPRESS;
+        }
+
+        if (settings.isAdaptiveCompression() && !this.getStatistics(packetId).shouldCompress()) {
+            return CompressionEnum.NO_COMPRESS;
+        }
+        return settings.getCompression();
+    }
+
+    public CompressionEnum selectBatch(int size) {
+        VortexSettings settings = this.owner.getSettings();
+        if (size < settings.getCompressionThreshold()) {
+            return CompressionEnum.NO_COMPRESS;
+        }
+        return settings.getCompression();
+    }
+
+    public void recordUncompressed(short packetId, int size) {
+        this.getStatistics(packetId).recordUncompressed(size);
+    }
+
+    public void recordCompressed(short packetId, int uncompressedSize, int compressedSize, long nanos) {
+        this.getStatistics(packetId).recordCompressed(uncompressedSize, compressedSize, nanos);
+    }
+
+    public CompressionStatistics getStatistics(short packetId) {
+        CompressionStatistics stats = this.statistics.get(packetId);
+        if (stats == null) {
+            stats = this.createStatistics(packetId);
+        }
+        return stats;
+    }
+
+    private synchronized CompressionStatistics createStatistics(short packetId) {
+        CompressionStatistics stats = this.statistics.get(packetId);
+        if (stats == null) {
+            Short2ObjectMap<CompressionStatistics> statistics = new Short2ObjectOpenHashMap<>(this.statistics);
+            statistics.put(packetId, stats = new CompressionStatistics(packetId));
+            this.statistics = statistics;
+        }
+        return stats;
+    }
+
+    /**
+     * @return compression statistics of all encoded packet types
+     */
+    public Short2ObjectMap<CompressionStatistics> getStatistics() {
+        return Short2ObjectMaps.unmodifiable(this.statistics);
+    }
+
+    /**
+     * Starts sampling received payloads and training Zstd dictionaries for each packet type.
+     * Should be enabled only on the side which distributes dictionaries.
+     * Dictionaries are trained on a dedicated thread, which is stopped by close().
+     * @param listener called when new dictionary is trained
+     */
+    public synchronized void enableDictionaryTraining(Consumer<VortexDictionary> listener) {
+        if (this.trainingExecutor == null) {
+            this.trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vortex-dictionary-trainer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        VortexSettings settings = this.owner.getSettings();
+        this.dictionaryListener = listener;
+        this.dictionaryTrainer = new DictionaryTrainer(settings.getDictionarySize(), settings.getDictionarySamples(),
+                this.trainingExecutor, this::onDictionaryTrained);
+    }
+
+    /**
+     * Stops dictionary training. Training which is already running is not interrupted.
+     */
+    public synchronized void close() {
+        this.dictionaryTrainer = null;
+        if (this.trainingExecutor != null) {
+            this.trainingExecutor.shutdown();
+            this.trainingExecutor = null;
+        }
+    }
+
+    private void onDictionaryTrained(short packetId, byte[] data) {
+        VortexDictionary dictionary = this.registerDictionary(this.dictionaryIdAllocator.incrementAndGet(), packetId, data);
+        if (this.dictionaryListener != null) {
+            this.dictionaryListener.accept(dictionary);
+        }
+    }
+
+    public boolean isDictionaryTraining() {
+        return this.dictionaryTrainer != null;
+    }
+
+    /**
+     * @param packetId ID of the packet
+     * @return if payload of the next packet of this type should be sampled for dictionary training
+     */
+    public boolean shouldSample(short packetId) {
+        DictionaryTrainer trainer = this.dictionaryTrainer;
+        return trainer != null && !this.packetDictionaries.containsKey(packetId) && trainer.shouldSample(packetId);
+    }
+
+    public void addSample(short packetId, ByteBuf buffer) {
+        DictionaryTrainer trainer = this.dictionaryTrainer;
+        if (trainer != null) {
+            trainer.addSample(packetId, buffer);
+        }
+    }
+
+    /**
+     * Registers dictionary which will be used to compress packets of given type.
+     * Dictionary with the same ID is replaced.
+     * @param dictionaryId ID of the dictionary
+     * @param packetId ID of the packet type dictionary was trained for
+     * @param data dictionary content
+     * @return registered dictionary
+     */
+    public synchronized VortexDictionary registerDictionary(int dictionaryId, short packetId, byte[] data) {
+        VortexDictionary dictionary = new VortexDictionary(dictionaryId, packetId, data, this.getCompressionLevel());
+
+        Int2ObjectMap<VortexDictionary> dictionaries = new Int2ObjectOpenHashMap<>(this.dictionaries);
+        dictionaries.put(dictionaryId, dictionary);
+        this.dictionaries = dictionaries;
+
+        Short2ObjectMap<VortexDictionary> packetDictionaries = new Short2ObjectOpenHashMap<>(this.packetDictionaries);
+        packetDictionaries.put(packetId, dictionary);
+        this.packetDictionaries = packetDictionaries;
+        return dictionary;
+    }
+
+    /**
+     * Removes all registered dictionaries. Dictionary IDs are assigned by the broker,
+     * so dictionaries received from previous connection must not be used after reconnecting.
+     */
+    public synchronized void clearDictionaries() {
+        this.dictionaries = new Int2ObjectOpenHashMap<>();
+        this.packetDictionaries = new Short2ObjectOpenHashMap<>();
+    }
+
+    public VortexDictionary getDictionary(int dictionaryId) {
+        return this.dictionaries.get(dictionaryId);
+    }
+
+    public VortexDictionary getPacketDictionary(short packetId) {
+        return this.packetDictionaries.get(packetId);
+    }
+
+    /**
+     * @return latest dictionaries of all packet types
+     */
+    public Collection<VortexDictionary> getPacketDictionaries() {
+        return Collections.unmodifiableCollection(this.packetDictionaries.values());
+    }
+
+    public int getCompressionLevel() {
+        return this.owner.getSettings().getCompressionLevel();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compression counters of single packet type.
+ * In adaptive mode statistics also decide if compressing this packet type is worth it.
+ */
+public class CompressionStatistics {
+
+    /**
+     * Number of compressed packets after which the compression ratio is evaluated.
+     */
+    public static final int SAMPLE_WINDOW = 64;
+    /**
+     * Compression is disabled if compressed data are larger than this fraction of the original size.
+     */
+    public static final double MAX_COMPRESSION_RATIO = 0.9;
+    /**
+     * When compression is disabled every n-th packet is still compressed to detect changes in the data.
+     */
+    public static final int PROBE_INTERVAL = 128;
+
+    private final short packetId;
+
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder compressedPackets = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong windowInput = new AtomicLong();
+    private final AtomicLong windowOutput = new AtomicLong();
+    private final AtomicInteger skippedPackets = new AtomicInteger();
+    private volatile boolean compressionEnabled = true;
+
+    public CompressionStatistics(short packetId) {
+        this.packetId = packetId;
+    }
+
+    /**
+     * @return if adaptive compression should compress next packet of this type
+     */
+    public boolean shouldCompress() {
+        return this.compressionEnabled || (this.skippedPackets.incrementAndGet() % PROBE_INTERVAL) == 0;
+    }
+
+    public void recordUncompressed(int size) {
+        this.packets.increment();
+        this.uncompressedBytes.add(size);
+        this.outputBytes.add(size);
+    }
+
+    public void recordCompressed(int uncompressedSize, int compressedSize, long nanos) {
+        this.packets.increment();
+        this.compressedPackets.increment();
+        this.uncompressedBytes.add(uncompressedSize);
+        this.outputBytes.add(compressedSize);
+        this.compressionNanos.add(nanos);
+
+        this.windowInput.addAndGet(uncompressedSize);
+        this.windowOutput.addAndGet(compressedSize);
+        if (this.windowCount.incrementAndGet() == SAMPLE_WINDOW) {
+            long input = this.windowInput.getAndSet(0);
+            long output = this.windowOutput.getAndSet(0);
+            this.windowCount.set(0);
+            this.compressionEnabled = input > 0 && ((double) output / input) <= MAX_COMPRESSION_RATIO;
+        }
+    }
+
+    public short getPacketId() {
+        return this.packetId;
+    }
+
+    public long getPackets() {
+        return this.packets.sum();
+    }
+
+    public long getCompressedPackets() {
+        return this.compressedPackets.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return this.uncompressedBytes.sum();
+    }
+
+    public long getOutputBytes() {
+        return this.outputBytes.sum();
+    }
+
+    public long getSavedBytes() {
+        return this.uncompressedBytes.sum() - this.outputBytes.sum();
+    }
+
+    public long getCompressionNanos() {
+        return this.compressionNanos.sum();
+    }
+
+    public boolean isCompressionEnabled() {
+        return this.compressionEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionStatistics(packetId=" + this.packetId +
+                ", packets=" + this.getPackets() +
+                ", compressedPackets=" + this.getCompressedPackets() +
+                ", uncompressedBytes=" + this.getUncompressedBytes() +
+                ", outputBytes=" + this.getOutputBytes() +
+                ", compressionNanos=" + this.getCompressionNanos() +
+                ", compressionEnabled=" + this.compressionEnabled + ")";
+    }
+}
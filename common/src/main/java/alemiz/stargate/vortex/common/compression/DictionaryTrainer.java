@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Samples uncompressed payloads per packet type and trains Zstd dictionary once enough samples are collected.
+ * Training runs asynchronously on given executor and every packet type is trained only once.
+ */
+@Log4j2
+public class DictionaryTrainer {
+
+    /**
+     * Only every n-th packet is sampled.
+     */
+    public static final int SAMPLE_RATE = 8;
+    /**
+     * Larger payloads compress well enough without dictionary.
+     */
+    public static final int MAX_SAMPLE_SIZE = 4096;
+
+    private final int dictionarySize;
+    private final int requiredSamples;
+    private final Executor executor;
+    private final BiConsumer<Short, byte[]> callback;
+
+    // Copy on write map, new packet types are seen rarely
+    private volatile Short2ObjectMap<Samples> samples = new Short2ObjectOpenHashMap<>();
+
+    /**
+     * @param dictionarySize maximum size of the trained dictionary
+     * @param requiredSamples number of samples needed to train the dictionary
+     * @param executor executor which runs the training
+     * @param callback called with packet ID and trained dictionary
+     */
+    public DictionaryTrainer(int dictionarySize, int requiredSamples, Executor executor, BiConsumer<Short, byte[]> callback) {
+        this.dictionarySize = dictionarySize;
+        this.requiredSamples = requiredSamples;
+        this.executor = executor;
+        this.callback = callback;
+    }
+
+    /**
+     * @param packetId ID of the packet
+     * @return if next packet of this type should be sampled
+     */
+    public boolean shouldSample(short packetId) {
+        Samples samples = this.samples.get(packetId);
+        if (samples == null) {
+            samples = this.createSamples(packetId);
+        }
+        return samples.shouldSample();
+    }
+
+    /**
+     * Adds uncompressed payload to the samples. Caller should check shouldSample() first.
+     * @param packetId ID of the packet
+     * @param buffer uncompressed payload, reader index is not modified
+     */
+    public void addSample(short packetId, ByteBuf buffer) {
+        int size = buffer.readableBytes();
+        Samples samples = this.samples.get(packetId);
+        if (samples == null || size == 0 || size > MAX_SAMPLE_SIZE) {
+            return;
+        }
+
+        byte[] sample = new byte[size];
+        buffer.getBytes(buffer.readerIndex(), sample);
+        samples.add(sample);
+    }
+
+    private synchronized Samples createSamples(short packetId) {
+        Samples samples = this.samples.get(packetId);
+        if (samples == null) {
+            Short2ObjectMap<Samples> map = new Short2ObjectOpenHashMap<>(this.samples);
+            map.put(packetId, samples = new Samples(packetId));
+            this.samples = map;
+        }
+        return samples;
+    }
+
+    private class Samples {
+        private final short packetId;
+        private final ZstdDictTrainer trainer;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private int sampleCount;
+        private volatile boolean finished = false;
+
+        private Samples(short packetId) {
+            this.packetId = packetId;
+            // Zstd recommends around 100 times more sample data than the dictionary size
+            this.trainer = new ZstdDictTrainer(dictionarySize * 100, dictionarySize);
+        }
+
+        private boolean shouldSample() {
+            return !this.finished && (this.counter.incrementAndGet() % SAMPLE_RATE) == 0;
+        }
+
+        private synchronized void add(byte[] sample) {
+            if (this.finished) {
+                return;
+            }
+
+            // Sample buffer might get full before we collect all samples
+            boolean added = this.trainer.addSample(sample);
+            if (added) {
+                this.sampleCount++;
+            }
+
+            if (this.sampleCount >= requiredSamples || !added) {
+                this.finished = true;
+                try {
+                    CompletableFuture.supplyAsync(this.trainer::trainSamples, executor).whenComplete((dictionary, error) -> {
+                        if (error != null) {
+                            log.warn("Unable to train dictionary for Vortex packet " + this.packetId, error);
+                        } else {
+                            callback.accept(this.packetId, dictionary);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Owner is shutting down
+                }
+            }
+        }
+    }
+}
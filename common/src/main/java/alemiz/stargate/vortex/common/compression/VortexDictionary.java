@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+/**
+ * Zstd dictionary trained for single packet type with pre-digested compression and decompression contexts.
+ */
+public class VortexDictionary {
+
+    private final int dictionaryId;
+    private final short packetId;
+    private final byte[] data;
+
+    private final ZstdDictCompress compressDictionary;
+    private final ZstdDictDecompress decompressDictionary;
+
+    public VortexDictionary(int dictionaryId, short packetId, byte[] data, int compressionLevel) {
+        this.dictionaryId = dictionaryId;
+        this.packetId = packetId;
+        this.data = data;
+        this.compressDictionary = new ZstdDictCompress(data, compressionLevel);
+        this.decompressDictionary = new ZstdDictDecompress(data);
+    }
+
+    public int getDictionaryId() {
+        return this.dictionaryId;
+    }
+
+    public short getPacketId() {
+        return this.packetId;
+    }
+
+    public byte[] getData() {
+        return this.data;
+    }
+
+    public ZstdDictCompress getCompressDictionary() {
+        return this.compressDictionary;
+    }
+
+    public ZstdDictDecompress getDecompressDictionary() {
+        return this.decompressDictionary;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.compression;
+
+import alemiz.stargate.vortex.common.VortexProtocolException;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds long-lived Zstd contexts and compression scratch buffer of single thread.
+ * Channel is always served by the same event loop thread, so contexts are reused by all packets of the channel
+ * without creating native context for each packet or keeping one for every connection.
+ * Instance must not be shared between threads, use ZstdContext.get() to obtain one.
+ * Contexts are cached only by threads which remove their FastThreadLocals on exit, such as Netty event loops.
+ * Other threads get a stateless instance which creates and frees native contexts for every call.
+ */
+public class ZstdContext {
+
+    /**
+     * Larger payloads are compressed directly to pooled buffer instead of the scratch buffer.
+     */
+    public static final int MAX_SCRATCH_SIZE = 256 * 1024;
+
+    private static final FastThreadLocal<ZstdContext> CONTEXTS = new FastThreadLocal<ZstdContext>() {
+        @Override
+        protected ZstdContext initialValue() {
+            return new ZstdContext();
+        }
+
+        @Override
+        protected void onRemoval(ZstdContext context) {
+            context.close();
+        }
+    };
+
+    private static final ZstdContext STATELESS = new ZstdContext(false);
+
+    public static ZstdContext get() {
+        // Native contexts held by FastThreadLocal of other threads would never be freed
+        if (!FastThreadLocalThread.willCleanupFastThreadLocals(Thread.currentThread())) {
+            return STATELESS;
+        }
+        return CONTEXTS.get();
+    }
+
+    private final boolean cached;
+
+    private final ZstdCompressCtx compressCtx;
+    private final ZstdDecompressCtx decompressCtx;
+    private int compressionLevel = Integer.MIN_VALUE;
+
+    private final Int2ObjectMap<DictionaryContext> dictionaryContexts = new Int2ObjectOpenHashMap<>();
+
+    private ByteBuffer scratchBuffer;
+
+    private ZstdContext() {
+        this(true);
+    }
+
+    private ZstdContext(boolean cached) {
+        this.cached = cached;
+        this.compressCtx = cached ? new ZstdCompressCtx() : null;
+        this.decompressCtx = cached ? new ZstdDecompressCtx() : null;
+    }
+
+    /**
+     * Compresses readable bytes of the buffer. Reader index is not modified.
+     * @param buffer buffer to be compressed
+     * @param compressionLevel level of compression, ignored when dictionary is used
+     * @param dictionary dictionary used to compress the buffer, may be null
+     * @return right-sized compressed buffer allocated by allocator of the source buffer
+     */
+    public ByteBuf compress(ByteBuf buffer, int compressionLevel, VortexDictionary dictionary) {
+        if (this.cached) {
+            ZstdCompressCtx ctx = dictionary == null ? this.getCompressCtx(compressionLevel) : this.getDictionaryContext(dictionary).compressCtx;
+            return this.compress(ctx, buffer);
+        }
+
+        try (ZstdCompressCtx ctx = new ZstdCompressCtx()) {
+            if (dictionary == null) {
+                ctx.setLevel(compressionLevel);
+            } else {
+                ctx.loadDict(dictionary.getCompressDictionary());
+            }
+            return this.compress(ctx, buffer);
+        }
+    }
+
+    private ByteBuf compress(ZstdCompressCtx ctx, ByteBuf buffer) {
+        int decompressedSize = buffer.readableBytes();
+        int maxSize = (int) Zstd.compressBound(decompressedSize);
+
+        ByteBuf source = toDirect(buffer);
+        try {
+            ByteBuffer sourceNio = source.nioBuffer(source.readerIndex(), decompressedSize);
+            // Scratch buffer of the stateless instance would be shared between threads
+            if (maxSize > MAX_SCRATCH_SIZE || !this.cached) {
+                ByteBuf compressed = buffer.alloc().directBuffer(maxSize);
+                try {
+                    int compressedSize = ctx.compressDirectByteBuffer(compressed.nioBuffer(0, maxSize), 0, maxSize, sourceNio, 0, decompressedSize);
+                    compressed.writerIndex(compressedSize);
+                    return compressed;
+                } catch (Throwable t) {
+                    compressed.release();
+                    throw t;
+                }
+            }
+
+            ByteBuffer scratch = this.getScratchBuffer(maxSize);
+            int compressedSize = ctx.compressDirectByteBuffer(scratch, 0, maxSize, sourceNio, 0, decompressedSize);
+            scratch.clear().limit(compressedSize);
+
+            ByteBuf compressed = buffer.alloc().ioBuffer(compressedSize);
+            compressed.writeBytes(scratch);
+            return compressed;
+        } finally {
+            source.release();
+        }
+    }
+
+    /**
+     * Decompresses readable bytes of the buffer. Reader index is not modified.
+     * @param buffer compressed buffer
+     * @param decompressedSize exact size of decompressed data
+     * @param dictionary dictionary which was used to compress the buffer, may be null
+     * @return decompressed buffer allocated by allocator of the source buffer
+     */
+    public ByteBuf decompress(ByteBuf buffer, int decompressedSize, VortexDictionary dictionary) {
+        if (this.cached) {
+            ZstdDecompressCtx ctx = dictionary == null ? this.decompressCtx : this.getDictionaryContext(dictionary).decompressCtx;
+            return decompress(ctx, buffer, decompressedSize);
+        }
+
+        try (ZstdDecompressCtx ctx = new ZstdDecompressCtx()) {
+            if (dictionary != null) {
+                ctx.loadDict(dictionary.getDecompressDictionary());
+            }
+            return decompress(ctx, buffer, decompressedSize);
+        }
+    }
+
+    private static ByteBuf decompress(ZstdDecompressCtx ctx, ByteBuf buffer, int decompressedSize) {
+        int compressedSize = buffer.readableBytes();
+        ByteBuf source = toDirect(buffer);
+        ByteBuf decompressed = buffer.alloc().directBuffer(decompressedSize);
+        try {
+            int size = ctx.decompressDirectByteBuffer(decompressed.nioBuffer(0, decompressedSize), 0, decompressedSize,
+                    source.nioBuffer(source.readerIndex(), compressedSize), 0, compressedSize);
+            if (size != decompressedSize) {
+                throw new VortexProtocolException("Decompressed size " + size + " does not match expected size " + decompressedSize);
+            }
+            decompressed.writerIndex(size);
+            return decompressed;
+        } catch (Throwable t) {
+            decompressed.release();
+            throw t;
+        } finally {
+            source.release();
+        }
+    }
+
+    private ZstdCompressCtx getCompressCtx(int compressionLevel) {
+        if (this.compressionLevel != compressionLevel) {
+            this.compressCtx.setLevel(compressionLevel);
+            this.compressionLevel = compressionLevel;
+        }
+        return this.compressCtx;
+    }
+
+    private DictionaryContext getDictionaryContext(VortexDictionary dictionary) {
+        DictionaryContext context = this.dictionaryContexts.get(dictionary.getDictionaryId());
+        if (context == null) {
+            this.dictionaryContexts.put(dictionary.getDictionaryId(), context = new DictionaryContext());
+        }
+
+        // Dictionary with the same ID might have been replaced, for example after reconnecting to another server
+        if (context.dictionary != dictionary) {
+            context.compressCtx.loadDict(dictionary.getCompressDictionary());
+            context.decompressCtx.loadDict(dictionary.getDecompressDictionary());
+            context.dictionary = dictionary;
+        }
+        return context;
+    }
+
+    private ByteBuffer getScratchBuffer(int size) {
+        if (this.scratchBuffer == null || this.scratchBuffer.capacity() < size) {
+            int capacity = Math.min(MAX_SCRATCH_SIZE, Integer.highestOneBit(size - 1) << 1);
+            this.scratchBuffer = ByteBuffer.allocateDirect(Math.max(capacity, size));
+        }
+        this.scratchBuffer.clear();
+        return this.scratchBuffer;
+    }
+
+    private static ByteBuf toDirect(ByteBuf buffer) {
+        if (buffer.isDirect() && buffer.nioBufferCount() == 1) {
+            return buffer.retain();
+        }
+        // Zstd contexts work only with direct buffers
+        int size = buffer.readableBytes();
+        return buffer.alloc().directBuffer(size).writeBytes(buffer, buffer.readerIndex(), size);
+    }
+
+    private void close() {
+        this.compressCtx.close();
+        this.decompressCtx.close();
+        for (DictionaryContext context : this.dictionaryContexts.values()) {
+            context.compressCtx.close();
+            context.decompressCtx.close();
+        }
+        this.dictionaryContexts.clear();
+    }
+
+    private static class DictionaryContext {
+        private final ZstdCompressCtx compressCtx = new ZstdCompressCtx();
+        private final ZstdDecompressCtx decompressCtx = new ZstdDecompressCtx();
+        private VortexDictionary dictionary;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.data;
+
+/**
+ * Decides which member of a topic subscription group receives the message.
+ */
+public enum GroupPolicy {
+    /**
+     * Members receive messages in turns.
+     */
+    ROUND_ROBIN,
+    /**
+     * Member with the least bytes waiting in its outbound queue, members with equal queues take turns.
+     * Requests routed between nodes are not tracked by the broker, so pending responses are not considered.
+     */
+    LEAST_QUEUED,
+    /**
+     * Member with the lowest round trip time.
+     */
+    LEAST_LATENCY,
+    /**
+     * Member selected by the routing key of the message from consistent hash ring, so messages with the same key
+     * go to the same member and only keys of joining or leaving member move. Messages without key are sent round-robin.
+     */
+    CONSISTENT_HASH
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.data;
+
+/**
+ * Decides what happens with packets sent to a node whose outbound queue exceeded its byte budget.
+ */
+public enum OverflowPolicy {
+    /**
+     * Producer waits until the queue drains. Event loop threads never wait, packets sent from them are dropped instead.
+     */
+    BLOCK,
+    /**
+     * Oldest queued packets are dropped to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * New packet is dropped.
+     */
+    DROP_NEWEST,
+    /**
+     * Queued message with conflation key is replaced by newer message with the same target, topic and key.
+     * Other packets are dropped when the budget is exceeded. See VortexMessagePacket#setConflationKey().
+     */
+    CONFLATE,
+    /**
+     * Slow node is disconnected.
+     */
+    DISCONNECT
+}
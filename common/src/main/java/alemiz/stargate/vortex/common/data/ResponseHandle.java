@@ -16,12 +16,14 @@
 package alemiz.stargate.vortex.common.data;
 
 import alemiz.stargate.vortex.common.protocol.packet.VortexResponse;
+import io.netty.util.Timeout;
 import io.netty.util.concurrent.Promise;
 
 public class ResponseHandle {
 
     private final long sendTime;
     private final Promise<VortexResponse> promise;
+    private volatile Timeout timeout;
 
     public ResponseHandle(long sendTime, Promise<VortexResponse> promise) {
         this.sendTime = sendTime;
@@ -35,4 +37,12 @@ public class ResponseHandle {
     public Promise<VortexResponse> getPromise() {
         return this.promise;
     }
+
+    public Timeout getTimeout() {
+        return this.timeout;
+    }
+
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.data;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexResponse;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Promise;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks responses which are expected to be received by the node.
+ * Timeouts are scheduled on shared hashed wheel timer, so expired requests are failed shortly after
+ * their deadline without periodically scanning all pending responses.
+ */
+public class ResponseTracker {
+
+    public static final long TICK_DURATION_MILLIS = 5;
+    public static final int TICKS_PER_WHEEL = 1024;
+
+    private static final Timer TIMER = new HashedWheelTimer(new DefaultThreadFactory("vortex-response-timer", true),
+            TICK_DURATION_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+
+    private final Map<Long, ResponseHandle> pendingResponses = new ConcurrentHashMap<>();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    /**
+     * Registers new pending response. Promise is failed with TimeoutException if no response is received in time.
+     * @param responseId id of the response
+     * @param promise promise to be completed once response is received
+     * @param timeout time to wait for the response
+     * @param unit unit of the timeout
+     * @return created response handle
+     */
+    public ResponseHandle register(long responseId, Promise<VortexResponse> promise, long timeout, TimeUnit unit) {
+        ResponseHandle handle = new ResponseHandle(System.currentTimeMillis(), promise);
+        this.pendingResponses.put(responseId, handle);
+        handle.setTimeout(TIMER.newTimeout(t -> this.onTimeout(responseId, handle), timeout, unit));
+        return handle;
+    }
+
+    private void onTimeout(long responseId, ResponseHandle handle) {
+        if (this.pendingResponses.remove(responseId, handle)) {
+            this.timeoutCount.increment();
+            handle.getPromise().tryFailure(new TimeoutException("No response received"));
+        }
+    }
+
+    /**
+     * Removes pending response and cancels its timeout.
+     * @param responseId id of the response
+     * @return response handle or null if response is not pending
+     */
+    public ResponseHandle remove(long responseId) {
+        ResponseHandle handle = this.pendingResponses.remove(responseId);
+        if (handle != null && handle.getTimeout() != null) {
+            handle.getTimeout().cancel();
+        }
+        return handle;
+    }
+
+    public ResponseHandle get(long responseId) {
+        return this.pendingResponses.get(responseId);
+    }
+
+    /**
+     * Fails all pending responses. Used when the node is closed.
+     * @param cause reason of the failure
+     */
+    public void failAll(Throwable cause) {
+        Iterator<ResponseHandle> iterator = this.pendingResponses.values().iterator();
+        while (iterator.hasNext()) {
+            ResponseHandle handle = iterator.next();
+            iterator.remove();
+
+            Timeout timeout = handle.getTimeout();
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            handle.getPromise().tryFailure(cause);
+        }
+    }
+
+    public int getPendingCount() {
+        return this.pendingResponses.size();
+    }
+
+    public long getTimeoutCount() {
+        return this.timeoutCount.sum();
+    }
+}
@@ -21,10 +21,42 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Data
 public class VortexSettings {
     private String password;
     private int port;
     private CompressionEnum compression;
     private int compressionLevel = 1;
+    private int compressionThreshold = 128;
+    private boolean adaptiveCompression = false;
+    private boolean relayMessages = false;
+    private int flushBatchPackets = 128;
+    private int flushBatchBytes = 64 * 1024;
+    private boolean batchPackets = false;
+    private boolean dictionaryTraining = false;
+    private int dictionarySize = 16 * 1024;
+    private int dictionarySamples = 1000;
+    private int metricsPort = 0;
+    private int heartbeatInterval = 50;
+    private int heartbeatMaxInterval = 5000;
+    private int idleTimeout = 30000;
+    private int writeBufferLowWaterMark = 32 * 1024;
+    private int writeBufferHighWaterMark = 64 * 1024;
+    private long outboundBudget = 0;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+    private long flowControlWindowBytes = 0;
+    private int flowControlWindowMessages = 0;
+    private Set<String> durableTopics = new HashSet<>();
+    private String topicLogDirectory = "topic-logs";
+    private int topicLogSegmentSize = 64 * 1024 * 1024;
+    private long topicLogRetentionBytes = 1024L * 1024 * 1024;
+    private long topicLogRetentionMillis = 7L * 24 * 60 * 60 * 1000;
+    private long pendingMessageTtl = 30000;
+    private int pendingMessagesPerNode = 1024;
+    private long pendingMessageBudget = 16 * 1024 * 1024;
+    private long retainedMessageBudget = 8 * 1024 * 1024;
+    private int retainedMessagesPerTopic = 1024;
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.filter;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+
+/**
+ * Filter of topic messages evaluated by the broker before the message is written to the subscriber.
+ * Filters can access only the message header and attributes, so the payload is never decoded.
+ * <p>
+ * Expression syntax: {@code name == 'value'}, {@code name != 'value'}, {@code name in ('a', 'b')} and {@code exists(name)},
+ * combined using {@code &&}, {@code ||}, {@code !} and parentheses. Names starting with {@code $} refer to header fields:
+ * {@code $sender}, {@code $target}, {@code $topic}, {@code $routingKey} and {@code $packetId}, which is compared as number. Other names refer to
+ * message attributes, see VortexMessagePacket.setAttribute(). Missing attribute never equals any value.
+ * For example {@code region == 'eu' && type in ('transfer', 'kick')}.
+ */
+public interface TopicFilter {
+
+    boolean test(VortexMessagePacket packet);
+
+    /**
+     * @param expression filter expression
+     * @return compiled filter
+     * @throws IllegalArgumentException if the expression is not valid, longer than 1024 characters or nested deeper than 32 levels
+     */
+    static TopicFilter parse(String expression) {
+        return new TopicFilterParser(expression).parse();
+    }
+
+    static TopicFilter or(TopicFilter left, TopicFilter right) {
+        return packet -> left.test(packet) || right.test(packet);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.filter;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Recursive descent parser of TopicFilter expressions.
+ * Expressions are received from remote nodes, so their length and nesting are limited to keep the recursion bounded.
+ */
+class TopicFilterParser {
+
+    static final int MAX_LENGTH = 1024;
+    static final int MAX_DEPTH = 32;
+
+    private static final String PACKET_ID_FIELD = "$packetId";
+
+    private final String expression;
+    private int position;
+    private int depth;
+
+    TopicFilterParser(String expression) {
+        this.expression = expression;
+    }
+
+    TopicFilter parse() {
+        if (this.expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Filter is longer than " + MAX_LENGTH + " characters");
+        }
+
+        TopicFilter filter = this.parseOr();
+        this.skipWhitespace();
+        if (this.position < this.expression.length()) {
+            throw this.error("Unexpected character '" + this.expression.charAt(this.position) + "'");
+        }
+        return filter;
+    }
+
+    private TopicFilter parseOr() {
+        TopicFilter filter = this.parseAnd();
+        while (this.accept("||")) {
+            TopicFilter left = filter;
+            TopicFilter right = this.parseAnd();
+            filter = packet -> left.test(packet) || right.test(packet);
+        }
+        return filter;
+    }
+
+    private TopicFilter parseAnd() {
+        TopicFilter filter = this.parseUnary();
+        while (this.accept("&&")) {
+            TopicFilter left = filter;
+            TopicFilter right = this.parseUnary();
+            filter = packet -> left.test(packet) && right.test(packet);
+        }
+        return filter;
+    }
+
+    private TopicFilter parseUnary() {
+        if (this.accept("!")) {
+            this.enter();
+            TopicFilter filter = this.parseUnary();
+            this.depth--;
+            return packet -> !filter.test(packet);
+        }
+
+        if (this.accept("(")) {
+            this.enter();
+            TopicFilter filter = this.parseOr();
+            this.expect(")");
+            this.depth--;
+            return filter;
+        }
+
+        String name = this.parseName();
+        if (name.equals("exists") && this.accept("(")) {
+            String fieldName = this.parseName();
+            this.expect(")");
+            if (fieldName.equals(PACKET_ID_FIELD)) {
+                return packet -> true;
+            }
+            Function<VortexMessagePacket, String> field = field(fieldName);
+            return packet -> field.apply(packet) != null;
+        }
+
+        if (name.equals(PACKET_ID_FIELD)) {
+            return this.parsePacketIdComparison();
+        }
+
+        Function<VortexMessagePacket, String> field = field(name);
+        if (this.accept("==")) {
+            String value = this.parseValue();
+            return packet -> value.equals(field.apply(packet));
+        }
+        if (this.accept("!=")) {
+            String value = this.parseValue();
+            return packet -> !value.equals(field.apply(packet));
+        }
+        if (this.acceptWord("in")) {
+            Set<String> values = new HashSet<>();
+            this.expect("(");
+            do {
+                values.add(this.parseValue());
+            } while (this.accept(","));
+            this.expect(")");
+            return packet -> {
+                String fieldValue = field.apply(packet);
+                return fieldValue != null && values.contains(fieldValue);
+            };
+        }
+        throw this.error("Expected operator after '" + name + "'");
+    }
+
+    /**
+     * Packet ID is compared as number, so it is not converted to string for every message.
+     */
+    private TopicFilter parsePacketIdComparison() {
+        if (this.accept("==")) {
+            short value = this.parsePacketId();
+            return packet -> packet.getPacketId() == value;
+        }
+        if (this.accept("!=")) {
+            short value = this.parsePacketId();
+            return packet -> packet.getPacketId() != value;
+        }
+        if (this.acceptWord("in")) {
+            ShortSet values = new ShortOpenHashSet();
+            this.expect("(");
+            do {
+                values.add(this.parsePacketId());
+            } while (this.accept(","));
+            this.expect(")");
+            return packet -> values.contains(packet.getPacketId());
+        }
+        throw this.error("Expected operator after '" + PACKET_ID_FIELD + "'");
+    }
+
+    private short parsePacketId() {
+        int start = this.position;
+        String value = this.parseValue();
+        try {
+            return Short.parseShort(value);
+        } catch (NumberFormatException e) {
+            this.position = start;
+            throw this.error("Expected packet ID number");
+        }
+    }
+
+    private void enter() {
+        if (++this.depth > MAX_DEPTH) {
+            throw this.error("Filter is nested deeper than " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private static Function<VortexMessagePacket, String> field(String name) {
+        switch (name) {
+            case "$sender":
+                return VortexMessagePacket::getSenderNode;
+            case "$target":
+                return VortexMessagePacket::getTargetNode;
+            case "$topic":
+                return VortexMessagePacket::getTopic;
+            case "$routingKey":
+                return VortexMessagePacket::getRoutingKey;
+            default:
+                if (name.startsWith("$")) {
+                    throw new IllegalArgumentException("Unknown header field " + name);
+                }
+                return packet -> {
+                    Map<String, String> attributes = packet.getAttributes();
+                    return attributes == null ? null : attributes.get(name);
+                };
+        }
+    }
+
+    private String parseName() {
+        this.skipWhitespace();
+        int start = this.position;
+        while (this.position < this.expression.length() && isNameChar(this.expression.charAt(this.position))) {
+            this.position++;
+        }
+
+        if (start == this.position) {
+            throw this.error("Expected name");
+        }
+        return this.expression.substring(start, this.position);
+    }
+
+    private String parseValue() {
+        this.skipWhitespace();
+        if (this.position >= this.expression.length()) {
+            throw this.error("Expected value");
+        }
+
+        char quote = this.expression.charAt(this.position);
+        if (quote != '\'' && quote != '"') {
+            // Unquoted values like numbers
+            return this.parseName();
+        }
+
+        int end = this.expression.indexOf(quote, this.position + 1);
+        if (end < 0) {
+            throw this.error("Unterminated string");
+        }
+        String value = this.expression.substring(this.position + 1, end);
+        this.position = end + 1;
+        return value;
+    }
+
+    private boolean accept(String token) {
+        this.skipWhitespace();
+        if (!this.expression.startsWith(token, this.position)) {
+            return false;
+        }
+        // Do not read "!" of "!="
+        if (token.equals("!") && this.expression.startsWith("!=", this.position)) {
+            return false;
+        }
+        this.position += token.length();
+        return true;
+    }
+
+    private boolean acceptWord(String word) {
+        this.skipWhitespace();
+        int end = this.position + word.length();
+        if (!this.expression.startsWith(word, this.position) ||
+                (end < this.expression.length() && isNameChar(this.expression.charAt(end)))) {
+            return false;
+        }
+        this.position = end;
+        return true;
+    }
+
+    private void expect(String token) {
+        if (!this.accept(token)) {
+            throw this.error("Expected '" + token + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == '$';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + this.position + " of filter: " + this.expression);
+    }
+}
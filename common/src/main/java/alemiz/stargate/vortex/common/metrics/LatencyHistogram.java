@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log-linear histogram of latency samples over a sliding time window.
+ * Each power of two range is split to linear sub-buckets, so percentiles keep relative precision of about 12%
+ * at any magnitude. The window is split to several slots which are cleared as they expire.
+ * Total count and sum of all samples are kept separately, so they can be exported as monotonic counters.
+ * Each histogram is fed by the event loop of a single node, so it is simply synchronized and the lock is not contended.
+ */
+public class LatencyHistogram {
+
+    public static final int WINDOW_SLOTS = 4;
+    public static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values larger than 2^36 units (~68s in nanoseconds) are clamped.
+     */
+    private static final int MAX_VALUE_BITS = 36;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final TimeUnit unit;
+    private final Slot[] slots = new Slot[WINDOW_SLOTS];
+    /**
+     * System.nanoTime() might be negative, slots are numbered from creation of the histogram.
+     */
+    private final long baseNanos = System.nanoTime();
+    private long totalCount;
+    private long totalSum;
+
+    public LatencyHistogram() {
+        this(TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * @param unit unit in which samples are kept and reported
+     */
+    public LatencyHistogram(TimeUnit unit) {
+        this.unit = unit;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            this.slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * @param nanos sample in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        long value = Math.min(MAX_VALUE, Math.max(0, this.unit.convert(nanos, TimeUnit.NANOSECONDS)));
+        this.totalCount++;
+        this.totalSum += value;
+
+        long slotId = (System.nanoTime() - this.baseNanos) / SLOT_NANOS;
+
+        Slot slot = this.slots[(int) (slotId % WINDOW_SLOTS)];
+        if (slot.slotId != slotId) {
+            slot.reset(slotId);
+        }
+        slot.counts[bucketIndex(value)]++;
+        slot.count++;
+        slot.sum += value;
+        slot.min = Math.min(slot.min, value);
+        slot.max = Math.max(slot.max, value);
+    }
+
+    /**
+     * @return statistics of samples recorded in last WINDOW_SLOTS * SLOT_NANOS
+     */
+    public synchronized Snapshot snapshot() {
+        long currentSlotId = (System.nanoTime() - this.baseNanos) / SLOT_NANOS;
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+
+        for (Slot slot : this.slots) {
+            if (slot.count == 0 || currentSlotId - slot.slotId >= WINDOW_SLOTS) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += slot.counts[i];
+            }
+            count += slot.count;
+            sum += slot.sum;
+            min = Math.min(min, slot.min);
+            max = Math.max(max, slot.max);
+        }
+        return new Snapshot(counts, count, sum, count == 0 ? 0 : min, max);
+    }
+
+    public TimeUnit getUnit() {
+        return this.unit;
+    }
+
+    /**
+     * @return number of all recorded samples, including samples outside of the window
+     */
+    public synchronized long getTotalCount() {
+        return this.totalCount;
+    }
+
+    /**
+     * @return sum of all recorded samples in the unit of the histogram
+     */
+    public synchronized long getTotalSum() {
+        return this.totalSum;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static class Slot {
+        private final int[] counts = new int[BUCKETS];
+        private long slotId = -1;
+        private long count;
+        private long sum;
+        private long min;
+        private long max;
+
+        private void reset(long slotId) {
+            Arrays.fill(this.counts, 0);
+            this.slotId = slotId;
+            this.count = 0;
+            this.sum = 0;
+            this.min = Long.MAX_VALUE;
+            this.max = 0;
+        }
+    }
+
+    /**
+     * Immutable view of the histogram window. All values are in the unit of the histogram.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long min, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * @param percentile percentile in range 0-100
+         * @return upper bound of the bucket which contains given percentile, capped by maximum
+         */
+        public long getPercentile(double percentile) {
+            if (this.count == 0) {
+                return 0;
+            }
+
+            long threshold = Math.max(1, (long) Math.ceil(this.count * Math.min(100, percentile) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += this.counts[i];
+                if (seen >= threshold) {
+                    return Math.max(this.min, Math.min(this.max, bucketUpperBound(i)));
+                }
+            }
+            return this.max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getMin() {
+            return this.min;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects round trip times of ping packets and estimates clock offset of the remote node.
+ * Offset is computed NTP-style from four timestamps: ping sent (t0), ping received by remote (t1),
+ * pong sent by remote (t2) and pong received (t3). Samples with the lowest round trip time are the least
+ * affected by queuing, so offset of the fastest sample from last OFFSET_SAMPLES pings is used.
+ */
+public class LatencyTracker {
+
+    public static final int OFFSET_SAMPLES = 16;
+
+    private static final long WALL_CLOCK_BASE_MICROS = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private static final long WALL_CLOCK_BASE_NANOS = System.nanoTime();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final long[] offsetSamples = new long[OFFSET_SAMPLES];
+    private final long[] offsetRoundTrips = new long[OFFSET_SAMPLES];
+    private int offsetSampleCount;
+
+    private volatile long roundTripNanos;
+    private volatile long clockOffsetMicros;
+    private volatile long outboundDelayMicros;
+    private volatile long inboundDelayMicros;
+
+    /**
+     * Wall clock with microsecond resolution. It is derived from System.nanoTime(),
+     * so it is monotonic and does not follow adjustments of system clock made after startup.
+     * @return current time in microseconds since epoch
+     */
+    public static long currentTimeMicros() {
+        return WALL_CLOCK_BASE_MICROS + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - WALL_CLOCK_BASE_NANOS);
+    }
+
+    /**
+     * Records completed ping. Must be called from single thread.
+     * @param roundTripNanos round trip time measured by System.nanoTime()
+     * @param pingTime local time when the ping was sent (t0)
+     * @param remoteReceiveTime remote time when the ping was received (t1), 0 if remote did not provide it
+     * @param remoteSendTime remote time when the pong was sent (t2), 0 if remote did not provide it
+     * @param pongTime local time when the pong was received (t3)
+     */
+    public void record(long roundTripNanos, long pingTime, long remoteReceiveTime, long remoteSendTime, long pongTime) {
+        this.roundTripNanos = roundTripNanos;
+        this.histogram.record(roundTripNanos);
+        if (remoteReceiveTime == 0 || remoteSendTime == 0) {
+            return;
+        }
+
+        int index = this.offsetSampleCount++ % OFFSET_SAMPLES;
+        this.offsetSamples[index] = ((remoteReceiveTime - pingTime) + (remoteSendTime - pongTime)) / 2;
+        this.offsetRoundTrips[index] = roundTripNanos;
+
+        int best = 0;
+        int samples = Math.min(this.offsetSampleCount, OFFSET_SAMPLES);
+        for (int i = 1; i < samples; i++) {
+            if (this.offsetRoundTrips[i] < this.offsetRoundTrips[best]) {
+                best = i;
+            }
+        }
+
+        long offset = this.offsetSamples[best];
+        this.clockOffsetMicros = offset;
+        this.outboundDelayMicros = Math.max(0, remoteReceiveTime - offset - pingTime);
+        this.inboundDelayMicros = Math.max(0, pongTime - (remoteSendTime - offset));
+    }
+
+    /**
+     * @return round trip time of the last ping in nanoseconds
+     */
+    public long getRoundTripNanos() {
+        return this.roundTripNanos;
+    }
+
+    /**
+     * @return estimated difference between remote and local clock in microseconds, positive if the remote clock is ahead
+     */
+    public long getClockOffsetMicros() {
+        return this.clockOffsetMicros;
+    }
+
+    /**
+     * @return one-way delay of the last ping from this node to the remote node in microseconds
+     */
+    public long getOutboundDelayMicros() {
+        return this.outboundDelayMicros;
+    }
+
+    /**
+     * @return one-way delay of the last pong from the remote node to this node in microseconds
+     */
+    public long getInboundDelayMicros() {
+        return this.inboundDelayMicros;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return this.histogram;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Exports metrics in plain text format on local HTTP port at /metrics.
+ * Uses JDK HTTP server with single thread, metrics are rendered only when requested.
+ */
+@Log4j2
+public class MetricsExporter {
+
+    private final VortexMetrics metrics;
+    private HttpServer server;
+
+    public MetricsExporter(VortexMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void start(int port) throws IOException {
+        if (this.server != null) {
+            throw new IllegalStateException("Metrics exporter is already running");
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/metrics", this::handle);
+        this.server.start();
+        log.info("Vortex metrics are exported on http://127.0.0.1:" + port + "/metrics");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] response = this.metrics.toText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.server = null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import alemiz.stargate.vortex.common.node.VortexNode;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic counters of single Vortex node. Byte counters count Vortex frame payloads,
+ * uncompressed counters count payload sizes before compression.
+ */
+public class NodeMetrics {
+
+    private final VortexNode node;
+
+    private final LongAdder packetsIn = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder uncompressedBytesIn = new LongAdder();
+    private final LongAdder packetsOut = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder uncompressedBytesOut = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
+
+    private final LatencyHistogram encodeTime = new LatencyHistogram(TimeUnit.NANOSECONDS);
+    private final LatencyHistogram decodeTime = new LatencyHistogram(TimeUnit.NANOSECONDS);
+
+    public NodeMetrics(VortexNode node) {
+        this.node = node;
+    }
+
+    public void recordInbound(int packets, int bytes, long uncompressedBytes, long decodeNanos) {
+        this.packetsIn.add(packets);
+        this.bytesIn.add(bytes);
+        this.uncompressedBytesIn.add(uncompressedBytes);
+        this.decodeTime.record(decodeNanos);
+    }
+
+    public void recordOutbound(int packets, int bytes, long uncompressedBytes) {
+        this.packetsOut.add(packets);
+        this.bytesOut.add(bytes);
+        this.uncompressedBytesOut.add(uncompressedBytes);
+    }
+
+    public void recordEncodeTime(long encodeNanos) {
+        this.encodeTime.record(encodeNanos);
+    }
+
+    public void recordDropped() {
+        this.droppedPackets.increment();
+    }
+
+    public String getNodeName() {
+        return this.node.getNodeName();
+    }
+
+    public VortexNode getNode() {
+        return this.node;
+    }
+
+    public long getPacketsIn() {
+        return this.packetsIn.sum();
+    }
+
+    public long getBytesIn() {
+        return this.bytesIn.sum();
+    }
+
+    public long getUncompressedBytesIn() {
+        return this.uncompressedBytesIn.sum();
+    }
+
+    public long getPacketsOut() {
+        return this.packetsOut.sum();
+    }
+
+    public long getBytesOut() {
+        return this.bytesOut.sum();
+    }
+
+    public long getUncompressedBytesOut() {
+        return this.uncompressedBytesOut.sum();
+    }
+
+    /**
+     * @return packets which were not sent because the node was closed
+     */
+    public long getDroppedPackets() {
+        return this.droppedPackets.sum() + this.node.getOutboundQueue().getDroppedPackets();
+    }
+
+    public int getQueueDepth() {
+        return this.node.getOutboundQueue().getQueuedPackets();
+    }
+
+    public long getQueuedBytes() {
+        return this.node.getOutboundQueue().getQueuedBytes();
+    }
+
+    public long getConflatedPackets() {
+        return this.node.getOutboundQueue().getConflatedPackets();
+    }
+
+    public long getResponseTimeouts() {
+        return this.node.getResponseTimeoutCount();
+    }
+
+    public int getPendingResponses() {
+        return this.node.getPendingResponseCount();
+    }
+
+    public LatencyHistogram getEncodeTime() {
+        return this.encodeTime;
+    }
+
+    public LatencyHistogram getDecodeTime() {
+        return this.decodeTime;
+    }
+}
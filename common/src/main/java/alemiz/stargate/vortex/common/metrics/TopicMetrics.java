@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class TopicMetrics {
+
+    private final String topic;
+
+    private final LongAdder publishedMessages = new LongAdder();
+    private final LongAdder publishedBytes = new LongAdder();
+    private final LongAdder deliveredMessages = new LongAdder();
+    private final LongAdder undeliveredMessages = new LongAdder();
+    private final LongAdder logFailures = new LongAdder();
+
+    public TopicMetrics(String topic) {
+        this.topic = topic;
+    }
+
+    public void recordPublished(int bytes) {
+        this.publishedMessages.increment();
+        this.publishedBytes.add(bytes);
+    }
+
+    /**
+     * @param recipients number of nodes which received the message
+     */
+    public void recordDelivered(int recipients) {
+        if (recipients == 0) {
+            this.undeliveredMessages.increment();
+        } else {
+            this.deliveredMessages.add(recipients);
+        }
+    }
+
+    public void recordLogFailure() {
+        this.logFailures.increment();
+    }
+
+    public String getTopic() {
+        return this.topic;
+    }
+
+    public long getPublishedMessages() {
+        return this.publishedMessages.sum();
+    }
+
+    public long getPublishedBytes() {
+        return this.publishedBytes.sum();
+    }
+
+    public long getDeliveredMessages() {
+        return this.deliveredMessages.sum();
+    }
+
+    /**
+     * @return messages published to the topic without any subscriber
+     */
+    public long getUndeliveredMessages() {
+        return this.undeliveredMessages.sum();
+    }
+
+    /**
+     * @return messages of durable topic which could not be appended to the topic log
+     */
+    public long getLogFailures() {
+        return this.logFailures.sum();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.metrics;
+
+import alemiz.stargate.vortex.common.node.VortexNode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per-node and per-topic traffic metrics.
+ * All counters are LongAdder based, so recording does not contend between event loops.
+ */
+public class VortexMetrics {
+
+    /**
+     * Topics are created by clients, so number of tracked topics is limited.
+     */
+    public static final int MAX_TOPICS = 10000;
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final Map<String, NodeMetrics> nodes = new ConcurrentHashMap<>();
+    private final Map<String, TopicMetrics> topics = new ConcurrentHashMap<>();
+
+    /**
+     * Creates metrics of the node. Metrics of previous node with the same name are replaced.
+     * @param node node to be tracked
+     * @return created node metrics
+     */
+    public NodeMetrics registerNode(VortexNode node) {
+        NodeMetrics metrics = new NodeMetrics(node);
+        this.nodes.put(node.getNodeName(), metrics);
+        return metrics;
+    }
+
+    public void unregisterNode(NodeMetrics metrics) {
+        this.nodes.remove(metrics.getNodeName(), metrics);
+    }
+
+    public NodeMetrics getNodeMetrics(String nodeName) {
+        return this.nodes.get(nodeName);
+    }
+
+    public Collection<NodeMetrics> getNodeMetrics() {
+        return Collections.unmodifiableCollection(this.nodes.values());
+    }
+
+    /**
+     * @param topic name of the topic
+     * @return metrics of the topic or null if too many topics are tracked
+     */
+    public TopicMetrics getTopicMetrics(String topic) {
+        TopicMetrics metrics = this.topics.get(topic);
+        if (metrics == null && this.topics.size() < MAX_TOPICS) {
+            metrics = this.topics.computeIfAbsent(topic, TopicMetrics::new);
+        }
+        return metrics;
+    }
+
+    public Collection<TopicMetrics> getTopicMetrics() {
+        return Collections.unmodifiableCollection(this.topics.values());
+    }
+
+    public void removeTopicMetrics(String topic) {
+        this.topics.remove(topic);
+    }
+
+    /**
+     * Writes all metrics in Prometheus text format.
+     * @param builder output
+     */
+    public void writeText(StringBuilder builder) {
+        for (NodeMetrics metrics : this.nodes.values()) {
+            String labels = "{node=\"" + escape(metrics.getNodeName()) + "\"}";
+            writeValue(builder, "vortex_node_packets_in_total", labels, metrics.getPacketsIn());
+            writeValue(builder, "vortex_node_bytes_in_total", labels, metrics.getBytesIn());
+            writeValue(builder, "vortex_node_uncompressed_bytes_in_total", labels, metrics.getUncompressedBytesIn());
+            writeValue(builder, "vortex_node_packets_out_total", labels, metrics.getPacketsOut());
+            writeValue(builder, "vortex_node_bytes_out_total", labels, metrics.getBytesOut());
+            writeValue(builder, "vortex_node_uncompressed_bytes_out_total", labels, metrics.getUncompressedBytesOut());
+            writeValue(builder, "vortex_node_dropped_packets_total", labels, metrics.getDroppedPackets());
+            writeValue(builder, "vortex_node_response_timeouts_total", labels, metrics.getResponseTimeouts());
+            writeValue(builder, "vortex_node_pending_responses", labels, metrics.getPendingResponses());
+            writeValue(builder, "vortex_node_queue_depth", labels, metrics.getQueueDepth());
+            writeValue(builder, "vortex_node_queued_bytes", labels, metrics.getQueuedBytes());
+            writeValue(builder, "vortex_node_conflated_packets_total", labels, metrics.getConflatedPackets());
+            writeLatency(builder, labels, metrics.getNode().getLatencyTracker());
+        }
+
+        // Samples of one family must be written together after its TYPE line
+        writeSummaryHeader(builder, "vortex_node_rtt_micros", "Round trip time of pings in microseconds over last minute");
+        for (NodeMetrics metrics : this.nodes.values()) {
+            writeSummary(builder, "vortex_node_rtt_micros", metrics.getNodeName(), metrics.getNode().getLatencyTracker().getHistogram());
+        }
+        writeSummaryHeader(builder, "vortex_node_encode_nanos", "Time spent encoding outbound packets in nanoseconds over last minute");
+        for (NodeMetrics metrics : this.nodes.values()) {
+            writeSummary(builder, "vortex_node_encode_nanos", metrics.getNodeName(), metrics.getEncodeTime());
+        }
+        writeSummaryHeader(builder, "vortex_node_decode_nanos", "Time spent decoding inbound frames in nanoseconds over last minute");
+        for (NodeMetrics metrics : this.nodes.values()) {
+            writeSummary(builder, "vortex_node_decode_nanos", metrics.getNodeName(), metrics.getDecodeTime());
+        }
+
+        for (TopicMetrics metrics : this.topics.values()) {
+            String labels = "{topic=\"" + escape(metrics.getTopic()) + "\"}";
+            writeValue(builder, "vortex_topic_published_total", labels, metrics.getPublishedMessages());
+            writeValue(builder, "vortex_topic_published_bytes_total", labels, metrics.getPublishedBytes());
+            writeValue(builder, "vortex_topic_delivered_total", labels, metrics.getDeliveredMessages());
+            writeValue(builder, "vortex_topic_undelivered_total", labels, metrics.getUndeliveredMessages());
+            writeValue(builder, "vortex_topic_log_failures_total", labels, metrics.getLogFailures());
+        }
+    }
+
+    public String toText() {
+        StringBuilder builder = new StringBuilder();
+        this.writeText(builder);
+        return builder.toString();
+    }
+
+    private static void writeSummaryHeader(StringBuilder builder, String name, String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    private static void writeSummary(StringBuilder builder, String name, String nodeName, LatencyHistogram histogram) {
+        String node = "node=\"" + escape(nodeName) + "\"";
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        for (double percentile : PERCENTILES) {
+            writeValue(builder, name, "{" + node + ",quantile=\"" + (percentile / 100) + "\"}", snapshot.getPercentile(percentile));
+        }
+        writeValue(builder, name + "_count", "{" + node + "}", histogram.getTotalCount());
+        writeValue(builder, name + "_sum", "{" + node + "}", histogram.getTotalSum());
+    }
+
+    private static void writeLatency(StringBuilder builder, String labels, LatencyTracker tracker) {
+        LatencyHistogram.Snapshot snapshot = tracker.getHistogram().snapshot();
+        writeValue(builder, "vortex_node_rtt_min_micros", labels, snapshot.getMin());
+        writeValue(builder, "vortex_node_rtt_mean_micros", labels, (long) snapshot.getMean());
+        writeValue(builder, "vortex_node_rtt_max_micros", labels, snapshot.getMax());
+        writeValue(builder, "vortex_node_clock_offset_micros", labels, tracker.getClockOffsetMicros());
+        writeValue(builder, "vortex_node_outbound_delay_micros", labels, tracker.getOutboundDelayMicros());
+        writeValue(builder, "vortex_node_inbound_delay_micros", labels, tracker.getInboundDelayMicros());
+    }
+
+    private static void writeValue(StringBuilder builder, String name, String labels, long value) {
+        builder.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -27,8 +27,14 @@ public abstract class VortexAbstractClientNode extends VortexNode implements Cli
     @Override
     protected void subscribe0(String topic) {
         VortexTopicSubscribePacket packet = new VortexTopicSubscribePacket();
-        packet.setTopic(topic.trim());
-        this.sendPacket(packet);
+        packet.setTopic(topic);
+        this.subscribe0(packet);
+    }
+
+    @Override
+    protected void subscribe0(VortexTopicSubscribePacket subscription) {
+        subscription.setTopic(subscription.getTopic().trim());
+        this.sendPacket(subscription);
     }
 
     @Override
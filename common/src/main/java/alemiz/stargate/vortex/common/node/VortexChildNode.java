@@ -18,6 +18,7 @@ package alemiz.stargate.vortex.common.node;
 import alemiz.stargate.StarGateSession;
 import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexTopicSubscribePacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexClientHandshakePacket;
 import lombok.extern.log4j.Log4j2;
 
@@ -63,29 +64,17 @@ public abstract class VortexChildNode extends VortexNode implements ServerSideNo
     @Override
     protected boolean onMessagePacket(VortexMessagePacket packet) {
         if (!packet.getTopic().isEmpty()) {
-            Collection<VortexNode> nodes = this.getVortexParent().getVortexNodes(packet.getTopic());
-            if (nodes == null) {
-                return false;
-            }
-
-            for (VortexNode node : nodes) {
-                if (node != this) {
-                    node.sendPacket(packet);
-                }
-            }
-            return true;
+            return this.getVortexParent().publishTopicMessage(this, packet);
         }
 
         if (packet.getTargetNode().isEmpty()) {
-            for (VortexMasterNode masterNode : this.masterNodes.values()) {
-                masterNode.sendPacket(packet);
-            }
+            this.sendPacket(packet, this.masterNodes.values());
             return true;
         }
 
         VortexMasterNode masterNode = this.getMasterNode(packet.getTargetNode());
         if (masterNode == null || masterNode.isClosed()) {
-            return false;
+            return this.getVortexParent().storePendingMessage(this, packet);
         }
 
         masterNode.sendPacket(packet);
@@ -138,6 +127,11 @@ public abstract class VortexChildNode extends VortexNode implements ServerSideNo
         this.getVortexParent().onNodeSubscribe(this, topic);
     }
 
+    @Override
+    protected void subscribe0(VortexTopicSubscribePacket subscription) {
+        this.getVortexParent().onNodeSubscribe(this, subscription);
+    }
+
     @Override
     protected void unsubscribe0(String topic) {
         this.getVortexParent().onNodeUnsubscribe(this, topic);
@@ -19,8 +19,8 @@ import alemiz.stargate.StarGateSession;
 import alemiz.stargate.vortex.common.protocol.packet.VortexChildInfoPacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexTopicSubscribePacket;
 
-import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -44,23 +44,11 @@ public abstract class VortexMasterNode extends VortexNode implements ServerSideN
     @Override
     protected boolean onMessagePacket(VortexMessagePacket packet) {
         if (!packet.getTopic().isEmpty()) {
-            Collection<VortexNode> nodes = this.getVortexParent().getVortexNodes(packet.getTopic());
-            if (nodes == null) {
-                return false;
-            }
-
-            for (VortexNode node : nodes) {
-                if (node != this) {
-                    node.sendPacket(packet);
-                }
-            }
-            return true;
+            return this.getVortexParent().publishTopicMessage(this, packet);
         }
 
         // Broadcast any message received from master to all child nodes
-        for (VortexNode vortexNode : this.childNodes.values()) {
-            vortexNode.sendPacket(packet);
-        }
+        this.sendPacket(packet, this.childNodes.values());
         return true;
     }
 
@@ -100,6 +88,11 @@ public abstract class VortexMasterNode extends VortexNode implements ServerSideN
         this.getVortexParent().onNodeSubscribe(this, topic);
     }
 
+    @Override
+    protected void subscribe0(VortexTopicSubscribePacket subscription) {
+        this.getVortexParent().onNodeSubscribe(this, subscription);
+    }
+
     @Override
     protected void unsubscribe0(String topic) {
         this.getVortexParent().onNodeUnsubscribe(this, topic);
@@ -18,37 +18,53 @@ package alemiz.stargate.vortex.common.node;
 import alemiz.stargate.StarGateSession;
 import alemiz.stargate.pipeline.UnhandledPacketConsumer;
 import alemiz.stargate.utils.StarGateLogger;
+import alemiz.stargate.vortex.common.compression.ChannelDictionaries;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
 import alemiz.stargate.vortex.common.data.ResponseHandle;
+import alemiz.stargate.vortex.common.data.ResponseTracker;
+import alemiz.stargate.vortex.common.data.GroupPolicy;
+import alemiz.stargate.vortex.common.data.OverflowPolicy;
 import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.filter.TopicFilter;
+import alemiz.stargate.vortex.common.metrics.LatencyTracker;
+import alemiz.stargate.vortex.common.metrics.NodeMetrics;
+import alemiz.stargate.vortex.common.pipeline.ChannelFlowControl;
+import alemiz.stargate.vortex.common.pipeline.ChannelHeartbeat;
 import alemiz.stargate.vortex.common.pipeline.VortexPacketDecoder;
+import alemiz.stargate.vortex.common.pipeline.VortexOutboundQueue;
 import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
 import alemiz.stargate.vortex.common.pipeline.VortexPipelineTail;
 import alemiz.stargate.vortex.common.protocol.packet.*;
 import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexDictionaryPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
 import io.netty.channel.*;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.extern.log4j.Log4j2;
 
 import java.net.InetSocketAddress;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Log4j2
 public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacket> {
     public static final String NAME = "vortex-node";
 
-    public static final int PING_INTERVAL_MILLIS = 50;
+    /**
+     * New ping is not sent until pong of the previous one is received or this timeout elapses.
+     */
+    public static final long PING_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
     public static final int RESPONSE_TIMEOUT_INTERVAL_SECONDS = 30;
 
     protected final VortexNodeOwner vortexParent;
@@ -56,22 +72,37 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
 
     protected Set<VortexPacketListener> listeners = Collections.synchronizedSet(new ObjectOpenHashSet<>());
 
-    private ScheduledFuture<?> pingFuture;
-    private ScheduledFuture<?> responsesFuture;
+    private ScheduledFuture<?> heartbeatFuture;
 
-    private long landPingTime;
-    private long latency;
+    private final LatencyTracker latencyTracker = new LatencyTracker();
+    private final ChannelHeartbeat heartbeat;
+    private VortexLatencyPacket pingPacket;
+    private boolean pingInFlight;
+    private long pingSendTime;
 
     private final AtomicInteger responseIdAllocator = new AtomicInteger(0);
-    private final Long2ObjectMap<ResponseHandle> pendingResponses = new Long2ObjectOpenHashMap<>();
+    private final ResponseTracker responseTracker = new ResponseTracker();
 
-    private final Set<String> subscribedTopics = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Map<String, VortexTopicSubscribePacket> subscriptions = new ConcurrentHashMap<>();
+
+    private final VortexOutboundQueue outboundQueue;
+    private final ChannelDictionaries dictionaries = new ChannelDictionaries();
+    private final ChannelFlowControl flowControl;
+    private final NodeMetrics metrics;
 
     private volatile boolean closed = false;
 
     public VortexNode(StarGateSession session, VortexNodeOwner vortexParent) {
         this.session = session;
         this.vortexParent = vortexParent;
+
+        VortexSettings settings = vortexParent.getSettings();
+        this.flowControl = new ChannelFlowControl(session.getChannel().eventLoop());
+        this.outboundQueue = new VortexOutboundQueue(session.getChannel(), settings.getFlushBatchPackets(), settings.getFlushBatchBytes(),
+                settings.isBatchPackets(), settings.getOutboundBudget(), settings.getOverflowPolicy(), this::onOutboundOverflow, this.flowControl);
+        this.metrics = vortexParent.getMetrics().registerNode(this);
+        this.heartbeat = new ChannelHeartbeat(this.latencyTracker, settings.getHeartbeatInterval(), settings.getHeartbeatMaxInterval(),
+                TimeUnit.MILLISECONDS);
     }
 
     public final void initialize(Channel channel) {
@@ -82,15 +113,25 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
 
         VortexSettings settings = this.vortexParent.getSettings();
         ChannelPipeline pipeline = channel.pipeline();
-
-        pipeline.addBefore(UnhandledPacketConsumer.NAME, VortexPacketDecoder.NAME, new VortexPacketDecoder(this.vortexParent.getPacketPool()));
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(settings.getWriteBufferLowWaterMark(), settings.getWriteBufferHighWaterMark()));
+
+        // Only server side nodes route messages, so only those can relay them without decoding
+        boolean serverSide = this instanceof ServerSideNode;
+        boolean relayMessages = settings.isRelayMessages() && serverSide;
+        CompressionPolicy compressionPolicy = this.vortexParent.getCompressionPolicy();
+        pipeline.addBefore(UnhandledPacketConsumer.NAME, VortexPacketDecoder.NAME,
+                new VortexPacketDecoder(this.vortexParent.getPacketPool(), serverSide, relayMessages, compressionPolicy, this.dictionaries,
+                        this.heartbeat, this.flowControl, this.metrics, this.vortexParent.getMetrics()));
         pipeline.addBefore(UnhandledPacketConsumer.NAME, VortexPacketEncoder.NAME,
-                new VortexPacketEncoder(this.session, settings.getCompression(), settings.getCompressionLevel()));
+                new VortexPacketEncoder(this.session, compressionPolicy, this.dictionaries, this.heartbeat, this.flowControl, this.metrics));
         pipeline.addAfter(VortexPacketDecoder.NAME, VortexNode.NAME, this);
         pipeline.addLast(VortexPipelineTail.NAME, new VortexPipelineTail(this));
 
-        this.pingFuture = channel.eventLoop().scheduleAtFixedRate(this::sendPing, 200, PING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
-        this.responsesFuture = channel.eventLoop().scheduleAtFixedRate(this::collectResponses, RESPONSE_TIMEOUT_INTERVAL_SECONDS, RESPONSE_TIMEOUT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        if (serverSide && settings.getFlowControlWindowBytes() > 0) {
+            this.sendPacket(this.flowControl.enableGranting(settings.getFlowControlWindowBytes(), settings.getFlowControlWindowMessages()));
+        }
+
+        this.heartbeatFuture = channel.eventLoop().schedule(this::onHeartbeat, 200, TimeUnit.MILLISECONDS);
         this.initialize0(channel);
     }
 
@@ -103,8 +144,13 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
             return;
         }
         this.closed = true;
-        this.pingFuture.cancel(false);
-        this.responsesFuture.cancel(false);
+        if (this.heartbeatFuture != null) {
+            this.heartbeatFuture.cancel(false);
+        }
+        this.responseTracker.failAll(new IllegalStateException("Vortex node was closed"));
+        this.outboundQueue.close();
+        this.flowControl.close();
+        this.vortexParent.getMetrics().unregisterNode(this.metrics);
         this.deinitialize0();
     }
 
@@ -121,7 +167,7 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
         // Ensure we dont slowly cause memory leak
         ResponseHandle responseHandle = null;
         if (packet instanceof VortexResponse) {
-            responseHandle = this.pendingResponses.remove(((VortexResponse) packet).getResponseId());
+            responseHandle = this.responseTracker.remove(((VortexResponse) packet).getResponseId());
         }
 
         if (!this.listeners.isEmpty()) {
@@ -156,18 +202,73 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
             if (subscribe.isUnsubscribe()) {
                 this.unsubscribe(subscribe.getTopic());
             } else {
-                this.subscribe(subscribe.getTopic());
+                try {
+                    this.subscribe(subscribe);
+                } catch (IllegalArgumentException e) {
+                    this.disconnect("Invalid subscription of topic " + subscribe.getTopic() + ": " + e.getMessage());
+                }
             }
             return true;
+        } else if (packet instanceof VortexTopicAckPacket && this instanceof ServerSideNode) {
+            VortexTopicAckPacket ack = (VortexTopicAckPacket) packet;
+            ((VortexServerNodeOwner) this.vortexParent).onTopicAcknowledge(this, ack.getTopic(), ack.getOffset());
+            return true;
+        } else if (packet instanceof VortexFlowControlPacket && this instanceof ClientSideNode) {
+            this.flowControl.onGrant((VortexFlowControlPacket) packet);
+            // Packets waiting for credits
+            this.outboundQueue.flush();
+            return true;
         }
         return false;
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        // Credits are returned once received packets were processed
+        VortexFlowControlPacket grant = this.flowControl.pollGrant();
+        if (grant != null) {
+            this.sendPacket(grant);
+        }
+        super.channelReadComplete(ctx);
+    }
+
     protected boolean onMessagePacket(VortexMessagePacket packet) {
         // Implement if required
         return false;
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        boolean writable = ctx.channel().isWritable();
+        if (writable) {
+            // Packets queued while the channel was not writable
+            this.outboundQueue.flush();
+        }
+
+        if (this.vortexParent instanceof VortexServerNodeOwner) {
+            VortexNodeListener listener = ((VortexServerNodeOwner) this.vortexParent).getNodeListener();
+            if (listener != null) {
+                listener.onNodeWritabilityChanged(this, writable);
+            }
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    private void onOutboundOverflow() {
+        OverflowPolicy policy = this.vortexParent.getSettings().getOverflowPolicy();
+        if (this.vortexParent instanceof VortexServerNodeOwner) {
+            VortexNodeListener listener = ((VortexServerNodeOwner) this.vortexParent).getNodeListener();
+            if (listener != null) {
+                listener.onNodeOverflow(this, policy);
+            }
+        }
+
+        if (policy == OverflowPolicy.DISCONNECT) {
+            this.session.getChannel().eventLoop().execute(() -> this.disconnect("Outbound queue exceeded " +
+                    this.vortexParent.getSettings().getOutboundBudget() + " bytes"));
+        }
+    }
+
     public void onDisconnected() {
         if (this.isClosed()) {
             return;
@@ -177,40 +278,80 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
     }
 
     private void onPing(VortexLatencyPacket packet) {
-        if (packet.isPong()) {
-            this.latency = System.currentTimeMillis() - this.landPingTime;
-        } else {
+        if (!packet.isPong()) {
+            // Received ping is sent back as pong, so answering does not allocate
+            packet.setReceiveTime(LatencyTracker.currentTimeMicros());
             packet.setPong(true);
+            packet.setPongTime(LatencyTracker.currentTimeMicros());
             this.sendPacket(packet);
+            return;
+        }
+
+        long roundTripNanos = System.nanoTime() - packet.getSendTime();
+        this.heartbeat.recordRoundTrip(roundTripNanos, packet.getPingTime(), packet.getReceiveTime(),
+                packet.getPongTime(), LatencyTracker.currentTimeMicros());
+        if (packet.getSendTime() == this.pingSendTime) {
+            this.pingInFlight = false;
         }
     }
 
-    private void sendPing() {
-        long currTime = System.currentTimeMillis();
-        if ((this.landPingTime + PING_INTERVAL_MILLIS) >= currTime) {
+    private void onHeartbeat() {
+        if (this.closed) {
             return;
         }
-        this.landPingTime = currTime;
 
-        VortexLatencyPacket packet = new VortexLatencyPacket();
-        packet.setSendTime(currTime);
-        packet.setPong(false);
-        this.sendPacket(packet);
+        long idleTimeout = this.vortexParent.getSettings().getIdleTimeout();
+        if (idleTimeout > 0 && this.heartbeat.getIdleNanos() > TimeUnit.MILLISECONDS.toNanos(idleTimeout)) {
+            this.disconnect("Nothing received for " + idleTimeout + "ms");
+            return;
+        }
+
+        if (this.heartbeat.shouldPing()) {
+            this.sendPing();
+        }
+        this.heartbeatFuture = this.session.getChannel().eventLoop().schedule(this::onHeartbeat, this.heartbeat.nextInterval(), TimeUnit.NANOSECONDS);
     }
 
-    private void collectResponses() {
-        long currTime = System.currentTimeMillis();
-        Iterator<ResponseHandle> iterator = this.pendingResponses.values().iterator();
-        while (iterator.hasNext()) {
-            ResponseHandle handle = iterator.next();
-            if (currTime > (handle.getSendTime() + RESPONSE_TIMEOUT_INTERVAL_SECONDS)) {
-                handle.getPromise().setFailure(new TimeoutException("No response received"));
-                iterator.remove();
+    private void sendPing() {
+        long currTime = System.nanoTime();
+        if (this.pingInFlight) {
+            if ((currTime - this.pingSendTime) < PING_TIMEOUT_NANOS) {
+                return;
             }
+            this.heartbeat.reset();
         }
+
+        // Ping packet is reused once its pong has arrived, because it was surely encoded by then.
+        // If the pong did not arrive in time, the old instance might still be queued, so new one is created.
+        if (this.pingPacket == null || this.pingInFlight) {
+            this.pingPacket = new VortexLatencyPacket();
+        }
+
+        VortexLatencyPacket packet = this.pingPacket;
+        packet.setSendTime(currTime);
+        packet.setPong(false);
+        packet.setPingTime(LatencyTracker.currentTimeMicros());
+        packet.setReceiveTime(0);
+        packet.setPongTime(0);
+
+        this.pingSendTime = currTime;
+        this.pingInFlight = true;
+        this.heartbeat.onPingSent();
+        this.sendPacket(packet);
     }
 
     public Promise<VortexResponse> sendResponsePacket(VortexResponse packet) {
+        return this.sendResponsePacket(packet, RESPONSE_TIMEOUT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sends packet and waits for the response with the same response id.
+     * @param packet request packet
+     * @param timeout time to wait for the response
+     * @param unit unit of the timeout
+     * @return promise which is completed with the response or failed with TimeoutException
+     */
+    public Promise<VortexResponse> sendResponsePacket(VortexResponse packet, long timeout, TimeUnit unit) {
         if (this.closed || !this.session.getChannel().isActive()) {
             return null;
         }
@@ -219,8 +360,7 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
         packet.setResponseId(id);
 
         Promise<VortexResponse> promise = new DefaultPromise<>(this.session.getChannel().eventLoop());
-        long currTime = System.currentTimeMillis();
-        this.pendingResponses.put(id, new ResponseHandle(currTime, promise));
+        this.responseTracker.register(id, promise, timeout, unit);
 
         this.sendPacket(packet);
         return promise;
@@ -231,10 +371,131 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
             if (packet instanceof VortexMessagePacket && ((VortexMessagePacket) packet).getSenderNode() == null) {
                 ((VortexMessagePacket) packet).setSenderNode(this.getNodeName());
             }
-            this.session.getChannel().writeAndFlush(packet).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            // Encoder releases reference counted packets like VortexRelayPacket once they are written
+            this.outboundQueue.enqueue(ReferenceCountUtil.retain(packet));
+        } else {
+            this.metrics.recordDropped();
+        }
+    }
+
+    /**
+     * Queues all packets to be written in single batch.
+     * @param packets packets to be sent
+     */
+    public void sendPackets(Collection<? extends VortexPacket> packets) {
+        for (VortexPacket packet : packets) {
+            this.sendPacket(packet);
         }
     }
 
+    /**
+     * Writes all queued packets to the channel. Queued packets are otherwise flushed once per event loop tick.
+     */
+    public void flush() {
+        this.outboundQueue.flush();
+    }
+
+    /**
+     * Sends the same packet to all given nodes except this one. When there are multiple recipients,
+     * packet is encoded and compressed only once and each node receives retained duplicate of the shared payload.
+     * @param packet packet to be sent
+     * @param nodes recipients of the packet
+     */
+    public void sendPacket(VortexPacket packet, Collection<? extends VortexNode> nodes) {
+        this.sendPacket0(packet, nodes.toArray(new VortexNode[0]));
+    }
+
+    /**
+     * Sends the same packet to all given nodes except this one, same as sendPacket(VortexPacket, Collection),
+     * without allocating an iterator.
+     * @param packet packet to be sent
+     * @param nodes recipients of the packet, array is not modified
+     * @return number of nodes the packet was sent to
+     */
+    public int sendPacket(VortexPacket packet, VortexNode[] nodes) {
+        return this.sendPacket0(packet, nodes);
+    }
+
+    private int sendPacket0(VortexPacket packet, VortexNode[] nodes) {
+        int recipients = 0;
+        for (VortexNode node : nodes) {
+            if (node != this) {
+                recipients++;
+            }
+        }
+
+        if (recipients < 2) {
+            for (VortexNode node : nodes) {
+                if (node != this) {
+                    node.sendPacket(packet);
+                }
+            }
+            return recipients;
+        }
+
+        if (packet instanceof VortexMessagePacket && ((VortexMessagePacket) packet).getSenderNode() == null) {
+            ((VortexMessagePacket) packet).setSenderNode(this.getNodeName());
+        }
+
+        // Encoder of each recipient sends the dictionary first if it was not sent to it yet
+        VortexGatePacket gatePacket = VortexPacketEncoder.encodePacket(this.session.getChannel().alloc(), packet,
+                this.vortexParent.getCompressionPolicy(), dictionaryId -> true);
+        try {
+            for (VortexNode node : nodes) {
+                if (node != this) {
+                    node.sendGatePacket(gatePacket.retainedDuplicate());
+                }
+            }
+        } finally {
+            gatePacket.release();
+        }
+        return recipients;
+    }
+
+    /**
+     * Writes already encoded packet to the channel. Ownership of the packet is passed to this method.
+     * @param packet encoded VortexGatePacket
+     */
+    public void sendGatePacket(VortexGatePacket packet) {
+        this.sendGatePacket(packet, null);
+    }
+
+    /**
+     * Writes already encoded packet to the channel. If packet with the same conflation key is still waiting
+     * in the outbound queue, it is replaced by this packet. Ownership of the packet is passed to this method.
+     * @param packet encoded VortexGatePacket
+     * @param conflationKey key compared using equals() or null
+     */
+    public void sendGatePacket(VortexGatePacket packet, Object conflationKey) {
+        if (!this.closed && this.session.getChannel().isActive()) {
+            this.outboundQueue.enqueue(packet, conflationKey);
+        } else {
+            this.metrics.recordDropped();
+            packet.release();
+        }
+    }
+
+    /**
+     * Sends trained compression dictionary to this node. Packets are compressed using the dictionary
+     * only after the dictionary was written to the channel.
+     * @param dictionary dictionary to be sent
+     */
+    public void sendDictionary(VortexDictionary dictionary) {
+        if (this.closed || this.dictionaries.isAvailable(dictionary.getDictionaryId())) {
+            return;
+        }
+
+        VortexDictionaryPacket packet = new VortexDictionaryPacket();
+        packet.setDictionaryId(dictionary.getDictionaryId());
+        packet.setVortexPacketId(dictionary.getPacketId());
+        packet.setDictionary(dictionary.getData());
+        this.outboundQueue.enqueue(packet);
+    }
+
+    public boolean isDictionaryAvailable(int dictionaryId) {
+        return this.dictionaries.isAvailable(dictionaryId);
+    }
+
     public void disconnect(String reason) {
         if (!this.isClosed()) {
             log.info("Disconnecting Vortex node " + this.getNodeName() + " due to: " + reason);
@@ -251,7 +512,7 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
     }
 
     public Promise<VortexResponse> getResponsePromise(int responseId) {
-        ResponseHandle responseHandle = this.pendingResponses.get(responseId);
+        ResponseHandle responseHandle = this.responseTracker.get(responseId);
         if (responseHandle != null) {
             return responseHandle.getPromise();
         }
@@ -259,17 +520,91 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
     }
 
     public final void subscribe(String topic) {
-        boolean success = this.subscribedTopics.add(topic);
-        if (success) {
-            this.subscribe0(topic);
+        this.subscribe(topic, VortexTopicSubscribePacket.OFFSET_COMMITTED);
+    }
+
+    /**
+     * Subscribes to the topic. If the topic is durable, messages are replayed from the given offset first.
+     * @param topic name of the topic
+     * @param offset offset of the first replayed message or one of VortexTopicSubscribePacket.OFFSET_* constants
+     */
+    public final void subscribe(String topic, long offset) {
+        VortexTopicSubscribePacket subscription = new VortexTopicSubscribePacket();
+        subscription.setTopic(topic);
+        subscription.setOffset(offset);
+        this.subscribe(subscription);
+    }
+
+    /**
+     * Joins the group of competing subscribers of the topic. Each message is delivered to only one member of the group.
+     * @param topic name of the topic
+     * @param group name of the group
+     * @param policy selects the member which receives the message, the policy of the first member is used
+     */
+    public final void subscribe(String topic, String group, GroupPolicy policy) {
+        VortexTopicSubscribePacket subscription = new VortexTopicSubscribePacket();
+        subscription.setTopic(topic);
+        subscription.setGroup(group);
+        subscription.setGroupPolicy(policy);
+        this.subscribe(subscription);
+    }
+
+    /**
+     * Subscribes to the topic with options given by the subscription. If the node is already subscribed to the topic,
+     * the subscription is updated when its group, filter or conflation changed.
+     * @param subscription describes the subscription, must not be modified afterwards
+     * @throws IllegalArgumentException if the subscription filter or topic pattern is not valid
+     */
+    public final void subscribe(VortexTopicSubscribePacket subscription) {
+        if (!subscription.getFilter().isEmpty()) {
+            // Validate before the topic is recorded, so invalid subscription can be corrected
+            TopicFilter.parse(subscription.getFilter());
         }
 
+        VortexTopicSubscribePacket previous = this.subscriptions.put(subscription.getTopic(), subscription);
+        if (previous == null) {
+            try {
+                this.subscribe0(subscription);
+            } catch (IllegalArgumentException e) {
+                // Broker rejected the topic pattern
+                this.subscriptions.remove(subscription.getTopic(), subscription);
+                throw e;
+            }
+        } else if (!previous.getGroup().equals(subscription.getGroup()) || previous.getGroupPolicy() != subscription.getGroupPolicy()) {
+            // Group membership and plain subscription are different entries on the broker
+            this.unsubscribe0(subscription.getTopic());
+            this.subscribe0(subscription);
+        } else if (!previous.getFilter().equals(subscription.getFilter()) || previous.isConflate() != subscription.isConflate()) {
+            this.subscribe0(subscription);
+        }
     }
 
     protected abstract void subscribe0(String topic);
 
+    protected void subscribe0(VortexTopicSubscribePacket subscription) {
+        this.subscribe0(subscription.getTopic());
+    }
+
+    /**
+     * Acknowledges that messages of durable topic up to the offset were processed.
+     * Next subscription to the topic resumes after this offset.
+     * @param topic name of the topic
+     * @param offset topic offset of the last processed message
+     */
+    public void acknowledge(String topic, long offset) {
+        if (this instanceof ServerSideNode) {
+            ((VortexServerNodeOwner) this.vortexParent).onTopicAcknowledge(this, topic, offset);
+            return;
+        }
+
+        VortexTopicAckPacket packet = new VortexTopicAckPacket();
+        packet.setTopic(topic);
+        packet.setOffset(offset);
+        this.sendPacket(packet);
+    }
+
     public final void unsubscribe(String topic) {
-        boolean success = this.subscribedTopics.remove(topic);
+        boolean success = this.subscriptions.remove(topic) != null;
         if (success) {
             this.unsubscribe0(topic);
         }
@@ -285,8 +620,41 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
         return this.session.getSessionName();
     }
 
+    /**
+     * @return round trip time of the last ping in milliseconds
+     */
     public long getLatency() {
-        return this.latency;
+        return TimeUnit.NANOSECONDS.toMillis(this.latencyTracker.getRoundTripNanos());
+    }
+
+    public long getLatencyNanos() {
+        return this.latencyTracker.getRoundTripNanos();
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return this.latencyTracker;
+    }
+
+    public ChannelHeartbeat getHeartbeat() {
+        return this.heartbeat;
+    }
+
+    public ChannelFlowControl getFlowControl() {
+        return this.flowControl;
+    }
+
+    /**
+     * @return if the node has flow control credits to send packets
+     */
+    public boolean canSend() {
+        return !this.closed && this.flowControl.hasCredit();
+    }
+
+    /**
+     * @return future which is completed once the node has flow control credits to send packets
+     */
+    public Future<Void> awaitCanSend() {
+        return this.flowControl.awaitCredit();
     }
 
     @Deprecated
@@ -306,13 +674,33 @@ public abstract class VortexNode extends SimpleChannelInboundHandler<VortexPacke
         return this.session.getAddress();
     }
 
+    public StarGateSession getSession() {
+        return this.session;
+    }
+
     public abstract VortexNodeType getVortexType();
 
     public VortexNodeOwner getVortexParent() {
         return this.vortexParent;
     }
 
+    public VortexOutboundQueue getOutboundQueue() {
+        return this.outboundQueue;
+    }
+
+    public int getPendingResponseCount() {
+        return this.responseTracker.getPendingCount();
+    }
+
+    public long getResponseTimeoutCount() {
+        return this.responseTracker.getTimeoutCount();
+    }
+
+    public NodeMetrics getMetrics() {
+        return this.metrics;
+    }
+
     public Set<String> getSubscribedTopics() {
-        return Collections.unmodifiableSet(this.subscribedTopics);
+        return Collections.unmodifiableSet(this.subscriptions.keySet());
     }
 }
@@ -15,6 +15,8 @@
 
 package alemiz.stargate.vortex.common.node;
 
+import alemiz.stargate.vortex.common.data.OverflowPolicy;
+
 import java.net.InetSocketAddress;
 
 public interface VortexNodeListener {
@@ -30,4 +32,17 @@ public interface VortexNodeListener {
 
     default void onChildNodeUnregister(VortexNode childNode, VortexMasterNode masterNode) {
     }
+
+    /**
+     * Called when the outbound buffer of the node crosses write buffer watermark.
+     * While the node is not writable, sent packets wait in its outbound queue.
+     */
+    default void onNodeWritabilityChanged(VortexNode node, boolean writable) {
+    }
+
+    /**
+     * Called when outbound queue of the node exceeded its budget and the overflow policy was applied.
+     */
+    default void onNodeOverflow(VortexNode node, OverflowPolicy policy) {
+    }
 }
@@ -15,7 +15,9 @@
 
 package alemiz.stargate.vortex.common.node;
 
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
 import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.metrics.VortexMetrics;
 import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
 
 public interface VortexNodeOwner {
@@ -23,4 +25,8 @@ public interface VortexNodeOwner {
     VortexSettings getSettings();
 
     VortexPacketPool getPacketPool();
+
+    CompressionPolicy getCompressionPolicy();
+
+    VortexMetrics getMetrics();
 }
@@ -15,6 +15,9 @@
 
 package alemiz.stargate.vortex.common.node;
 
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexTopicSubscribePacket;
+
 import java.net.InetSocketAddress;
 import java.util.Collection;
 
@@ -24,9 +27,51 @@ public interface VortexServerNodeOwner extends VortexNodeOwner {
 
     VortexNode getVortexNode(InetSocketAddress address);
 
+    /**
+     * @return nodes subscribed to the topic, empty if there are none
+     */
     Collection<VortexNode> getVortexNodes(String topic);
 
-    void onNodeSubscribe(VortexNode node, String topic);
+    /**
+     * Delivers message to all subscribers of its topic except the sender.
+     * @param sender node which published the message
+     * @param packet message with non-empty topic
+     * @return if the message was delivered or stored
+     */
+    boolean publishTopicMessage(VortexNode sender, VortexMessagePacket packet);
+
+    /**
+     * Holds direct message until its target node connects. Called when the target node is not connected.
+     * @param sender node which sent the message
+     * @param packet message with target node
+     * @return if the message was stored to be delivered later
+     */
+    default boolean storePendingMessage(VortexNode sender, VortexMessagePacket packet) {
+        return false;
+    }
+
+    default void onNodeSubscribe(VortexNode node, String topic) {
+        this.onNodeSubscribe(node, topic, VortexTopicSubscribePacket.OFFSET_COMMITTED);
+    }
+
+    /**
+     * @param offset offset from which durable topic should be replayed or one of VortexTopicSubscribePacket.OFFSET_* constants
+     */
+    default void onNodeSubscribe(VortexNode node, String topic, long offset) {
+        VortexTopicSubscribePacket subscription = new VortexTopicSubscribePacket();
+        subscription.setTopic(topic);
+        subscription.setOffset(offset);
+        this.onNodeSubscribe(node, subscription);
+    }
+
+    /**
+     * Subscribes the node or updates options of its existing subscription.
+     * @throws IllegalArgumentException if the subscription filter or topic pattern is not valid
+     */
+    void onNodeSubscribe(VortexNode node, VortexTopicSubscribePacket subscription);
+
+    default void onTopicAcknowledge(VortexNode node, String topic, long offset) {
+    }
 
     void onNodeUnsubscribe(VortexNode node, String topic);
 
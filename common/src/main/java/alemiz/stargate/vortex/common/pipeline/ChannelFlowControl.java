@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.pipeline;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexFlowControlPacket;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Credit based flow control of single channel. The broker grants send window in bytes and messages,
+ * the node writes frames only while it has credits left and waits for next grant otherwise.
+ * Frames are accounted by their payload size, batch counts as all packets it contains.
+ * The broker grants credits back once it has processed at least half of the window, so nodes are slowed down
+ * to the rate at which the broker keeps up. Until the first grant is received, sending is not limited.
+ * Counters are modified only from the event loop of the channel.
+ */
+public class ChannelFlowControl {
+
+    private final EventExecutor executor;
+
+    // Sending side
+    private volatile boolean enabled;
+    private volatile long sendBytes;
+    private volatile long sendMessages;
+    private final Queue<Promise<Void>> waiters = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    // Receiving side
+    private long windowBytes;
+    private int windowMessages;
+    private long consumedBytes;
+    private long consumedMessages;
+
+    public ChannelFlowControl(EventExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Enables granting credits to the remote node.
+     * @param windowBytes send window in bytes
+     * @param windowMessages send window in messages, 0 for unlimited
+     * @return initial grant which should be sent to the remote node
+     */
+    public VortexFlowControlPacket enableGranting(long windowBytes, int windowMessages) {
+        this.windowBytes = windowBytes;
+        this.windowMessages = windowMessages <= 0 ? Integer.MAX_VALUE : windowMessages;
+
+        VortexFlowControlPacket packet = new VortexFlowControlPacket();
+        packet.setCreditBytes(this.windowBytes);
+        packet.setCreditMessages(this.windowMessages);
+        return packet;
+    }
+
+    public void onReceived(int bytes, int messages) {
+        if (this.windowBytes > 0) {
+            this.consumedBytes += bytes;
+            this.consumedMessages += messages;
+        }
+    }
+
+    /**
+     * @return grant of processed credits if at least half of the window was processed, otherwise null
+     */
+    public VortexFlowControlPacket pollGrant() {
+        if (this.windowBytes <= 0 || (this.consumedBytes < this.windowBytes / 2 && this.consumedMessages < this.windowMessages / 2)) {
+            return null;
+        }
+
+        VortexFlowControlPacket packet = new VortexFlowControlPacket();
+        packet.setCreditBytes(this.consumedBytes);
+        packet.setCreditMessages((int) Math.min(Integer.MAX_VALUE, this.consumedMessages));
+        this.consumedBytes = 0;
+        this.consumedMessages = 0;
+        return packet;
+    }
+
+    public void onGrant(VortexFlowControlPacket packet) {
+        this.enabled = true;
+        this.sendBytes += packet.getCreditBytes();
+        this.sendMessages += packet.getCreditMessages();
+        if (this.hasCredit()) {
+            Promise<Void> promise;
+            while ((promise = this.waiters.poll()) != null) {
+                promise.trySuccess(null);
+            }
+        }
+    }
+
+    /**
+     * Consumes credits of written frame. Window may become negative by the size of the last frame.
+     */
+    public void consume(int bytes, int messages) {
+        if (this.enabled) {
+            this.sendBytes -= bytes;
+            this.sendMessages -= messages;
+        }
+    }
+
+    public boolean hasCredit() {
+        return !this.enabled || (this.sendBytes > 0 && this.sendMessages > 0);
+    }
+
+    /**
+     * @return future which is completed once the node has credits to send, or failed when the channel is closed
+     */
+    public Future<Void> awaitCredit() {
+        if (this.closed) {
+            return this.executor.newFailedFuture(new IllegalStateException("Vortex node was closed"));
+        }
+        if (this.hasCredit()) {
+            return this.executor.newSucceededFuture(null);
+        }
+
+        Promise<Void> promise = this.executor.newPromise();
+        this.waiters.offer(promise);
+        // Grant might have been received before the promise was queued
+        if (this.hasCredit() && this.waiters.remove(promise)) {
+            promise.trySuccess(null);
+        } else if (this.closed && this.waiters.remove(promise)) {
+            promise.tryFailure(new IllegalStateException("Vortex node was closed"));
+        }
+        return promise;
+    }
+
+    public void close() {
+        this.closed = true;
+        Promise<Void> promise;
+        while ((promise = this.waiters.poll()) != null) {
+            promise.tryFailure(new IllegalStateException("Vortex node was closed"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public long getSendBytes() {
+        return this.sendBytes;
+    }
+
+    public long getSendMessages() {
+        return this.sendMessages;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.pipeline;
+
+import alemiz.stargate.vortex.common.metrics.LatencyTracker;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat state of single channel. Outbound frames are stamped with local timestamp and echo of the last
+ * timestamp received from the peer, similarly to TCP timestamps, so round trip time is measured from data traffic.
+ * Explicit pings are needed only if the link is idle or traffic flows in one direction.
+ * The interval between heartbeats doubles while round trip time is stable and drops back to minimum once it changes.
+ * All methods must be called from the event loop of the channel.
+ */
+public class ChannelHeartbeat {
+
+    /**
+     * Round trip sample which differs from smoothed round trip time by more than 1/STABILITY_DIVISOR is unstable.
+     */
+    private static final int STABILITY_DIVISOR = 2;
+    private static final long MIN_DEVIATION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LatencyTracker latencyTracker;
+    private final long minIntervalNanos;
+    private final long maxIntervalNanos;
+    private final long baseNanos = System.nanoTime();
+
+    private long intervalNanos;
+    private long smoothedRoundTripNanos;
+    private boolean unstable = true;
+
+    private long lastReadNanos = this.baseNanos;
+    private long lastSampleNanos;
+    private long lastPingNanos;
+    private long lastStampNanos;
+
+    private long echoTimestamp;
+    private long echoReceivedNanos;
+
+    public ChannelHeartbeat(LatencyTracker latencyTracker, long minInterval, long maxInterval, TimeUnit unit) {
+        this.latencyTracker = latencyTracker;
+        this.minIntervalNanos = unit.toNanos(minInterval);
+        this.maxIntervalNanos = Math.max(this.minIntervalNanos, unit.toNanos(maxInterval));
+        this.intervalNanos = this.minIntervalNanos;
+    }
+
+    public void onRead() {
+        this.lastReadNanos = System.nanoTime();
+    }
+
+    /**
+     * Handles timestamps piggybacked on received frame.
+     * @param timestamp timestamp of the peer, 0 if not present
+     * @param echoTimestamp our timestamp echoed by the peer, 0 if not present
+     * @param echoDelayMicros time for which the peer held our timestamp before echoing it
+     */
+    public void onTimestamp(long timestamp, long echoTimestamp, long echoDelayMicros) {
+        long now = System.nanoTime();
+        if (timestamp != 0) {
+            this.echoTimestamp = timestamp;
+            this.echoReceivedNanos = now;
+        }
+
+        if (echoTimestamp != 0) {
+            long roundTripMicros = this.toTimestamp(now) - echoTimestamp - echoDelayMicros;
+            if (roundTripMicros >= 0) {
+                this.recordRoundTrip(TimeUnit.MICROSECONDS.toNanos(roundTripMicros), 0, 0, 0, 0);
+            }
+        }
+    }
+
+    /**
+     * Adds timestamps to outbound frame. Frames are stamped at most once per minimum heartbeat interval,
+     * unless there is peer timestamp waiting to be echoed.
+     * @param packet frame which is about to be written
+     */
+    public void stamp(VortexGatePacket packet) {
+        long now = System.nanoTime();
+        boolean echo = this.echoTimestamp != 0;
+        if (!echo && (now - this.lastStampNanos) < this.minIntervalNanos) {
+            return;
+        }
+        this.lastStampNanos = now;
+
+        packet.setTimestamp(this.toTimestamp(now));
+        if (echo) {
+            packet.setEchoTimestamp(this.echoTimestamp);
+            packet.setEchoDelay(TimeUnit.NANOSECONDS.toMicros(now - this.echoReceivedNanos));
+            this.echoTimestamp = 0;
+        }
+    }
+
+    /**
+     * Records round trip sample measured either by ping or by piggybacked timestamps.
+     * See LatencyTracker.record() for description of parameters.
+     */
+    public void recordRoundTrip(long roundTripNanos, long pingTime, long remoteReceiveTime, long remoteSendTime, long pongTime) {
+        this.latencyTracker.record(roundTripNanos, pingTime, remoteReceiveTime, remoteSendTime, pongTime);
+        this.lastSampleNanos = System.nanoTime();
+
+        if (this.smoothedRoundTripNanos == 0) {
+            this.smoothedRoundTripNanos = roundTripNanos;
+            return;
+        }
+
+        long deviation = Math.abs(roundTripNanos - this.smoothedRoundTripNanos);
+        if (deviation > Math.max(MIN_DEVIATION_NANOS, this.smoothedRoundTripNanos / STABILITY_DIVISOR)) {
+            this.unstable = true;
+        }
+        this.smoothedRoundTripNanos += (roundTripNanos - this.smoothedRoundTripNanos) / 8;
+    }
+
+    /**
+     * Ping is not needed if both data and round trip samples were received during last interval.
+     * Ping is still sent at least once per maximum interval, so clock offset estimate stays fresh.
+     * @return if ping should be sent now
+     */
+    public boolean shouldPing() {
+        long now = System.nanoTime();
+        boolean recentTraffic = (now - this.lastReadNanos) < this.intervalNanos && (now - this.lastSampleNanos) < this.intervalNanos;
+        return !recentTraffic || (now - this.lastPingNanos) >= this.maxIntervalNanos;
+    }
+
+    public void onPingSent() {
+        this.lastPingNanos = System.nanoTime();
+    }
+
+    /**
+     * Resets heartbeat to minimum interval, for example when ping timed out.
+     */
+    public void reset() {
+        this.unstable = true;
+    }
+
+    /**
+     * Computes delay of the next heartbeat.
+     * @return delay in nanoseconds
+     */
+    public long nextInterval() {
+        if (this.unstable) {
+            this.intervalNanos = this.minIntervalNanos;
+            this.unstable = false;
+        } else {
+            this.intervalNanos = Math.min(this.maxIntervalNanos, this.intervalNanos * 2);
+        }
+        return this.intervalNanos;
+    }
+
+    public long getIntervalNanos() {
+        return this.intervalNanos;
+    }
+
+    /**
+     * @return time since last received frame in nanoseconds
+     */
+    public long getIdleNanos() {
+        return System.nanoTime() - this.lastReadNanos;
+    }
+
+    private long toTimestamp(long nanos) {
+        // Timestamps are relative to creation of the heartbeat, so they are small and never 0
+        return TimeUnit.NANOSECONDS.toMicros(nanos - this.baseNanos) + 1;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package alemiz.stargate.vortex.common.pipeline;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+
+/**
+ * Key of conflated message in the outbound queue. Messages are conflated only if they have the same target,
+ * topic and conflation key set by VortexMessagePacket#setConflationKey().
+ */
+public final class MessageConflationKey {
+
+    private final String targetNode;
+    private final String topic;
+    private final String key;
+    private final int hashCode;
+
+    public MessageConflationKey(String targetNode, String topic, String key) {
+        this.targetNode = targetNode == null ? "" : targetNode;
+        this.topic = topic == null ? "" : topic;
+        this.key = key;
+        this.hashCode = 31 * (31 * this.targetNode.hashCode() + this.topic.hashCode()) + key.hashCode();
+    }
+
+    /**
+     * @return conflation key of the message or null if the message is not conflatable
+     */
+    public static MessageConflationKey of(Object msg) {
+        if (msg instanceof VortexMessagePacket) {
+            VortexMessagePacket message = (VortexMessagePacket) msg;
+            return message.getConflationKey() == null ? null :
+                    new MessageConflationKey(message.getTargetNode(), message.getTopic(), message.getConflationKey());
+        } else if (msg instanceof VortexGatePacket) {
+            VortexGatePacket packet = (VortexGatePacket) msg;
+            return packet.getConflationKey() == null ? null :
+                    new MessageConflationKey(packet.getTargetNode(), packet.getTopic(), packet.getConflationKey());
+        }
+        return null;
+    }
+
+    public String getTargetNode() {
+        return this.targetNode;
+    }
+
+    public String getTopic() {
+        return this.topic;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MessageConflationKey)) {
+            return false;
+        }
+        MessageConflationKey other = (MessageConflationKey) obj;
+        return this.hashCode == other.hashCode && this.key.equals(other.key) && this.topic.equals(other.topic) &&
+                this.targetNode.equals(other.targetNode);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageConflationKey(targetNode=" + this.targetNode + ", topic=" + this.topic + ", key=" + this.key + ")";
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.pipeline;
+
+import alemiz.stargate.vortex.common.data.OverflowPolicy;
+import alemiz.stargate.vortex.common.protocol.packet.VortexControlPacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.ThreadExecutorMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces outbound writes of the node. Packets are queued from any thread and written to the channel
+ * on its event loop. Channel is flushed once per event loop tick or when batch packet count or byte threshold is reached.
+ * If enabled, consecutive Vortex packets are grouped to VortexPacketBatch and compressed together.
+ * While the channel is not writable, packets stay in the queue. Once queued bytes exceed the budget, overflow policy is applied.
+ * Encoded frames are accounted by their size, packets which are not encoded yet by VortexPacket.getSizeHint().
+ * Control packets are kept in separate queue, they are written first and do not wait for flow control credits.
+ */
+public class VortexOutboundQueue {
+
+    private static final long BLOCK_CHECK_MILLIS = 100;
+
+    private final Channel channel;
+    private final int maxBatchPackets;
+    private final int maxBatchBytes;
+    private final boolean batchPackets;
+
+    private final long maxQueuedBytes;
+    private final OverflowPolicy overflowPolicy;
+    private final Runnable overflowHandler;
+    private final ChannelFlowControl flowControl;
+    private final AtomicBoolean overflowed = new AtomicBoolean(false);
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final Queue<VortexControlPacket> controlQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedPackets = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final Map<Object, Object> conflatedPackets = new ConcurrentHashMap<>();
+    private final Object budgetLock = new Object();
+    private final AtomicInteger blockedProducers = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Runnable flushTask = this::flush0;
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedPackets = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
+    private final LongAdder conflatedCount = new LongAdder();
+    private volatile int maxBatchSize;
+
+    private volatile boolean closed = false;
+
+    public VortexOutboundQueue(Channel channel, int maxBatchPackets, int maxBatchBytes) {
+        this(channel, maxBatchPackets, maxBatchBytes, false);
+    }
+
+    public VortexOutboundQueue(Channel channel, int maxBatchPackets, int maxBatchBytes, boolean batchPackets) {
+        this(channel, maxBatchPackets, maxBatchBytes, batchPackets, Long.MAX_VALUE, OverflowPolicy.DROP_NEWEST, null, null);
+    }
+
+    /**
+     * @param maxQueuedBytes budget of bytes which may wait in the queue
+     * @param overflowPolicy policy applied when the budget is exceeded
+     * @param overflowHandler called when the budget gets exceeded, again only after the queue drained below the budget, may be null
+     * @param flowControl flow control of the channel, packets are written only while it has credits, may be null
+     */
+    public VortexOutboundQueue(Channel channel, int maxBatchPackets, int maxBatchBytes, boolean batchPackets,
+                               long maxQueuedBytes, OverflowPolicy overflowPolicy, Runnable overflowHandler, ChannelFlowControl flowControl) {
+        this.channel = channel;
+        this.maxBatchPackets = Math.max(1, maxBatchPackets);
+        this.maxBatchBytes = Math.max(1, maxBatchBytes);
+        this.batchPackets = batchPackets;
+        this.maxQueuedBytes = maxQueuedBytes <= 0 ? Long.MAX_VALUE : maxQueuedBytes;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowHandler = overflowHandler;
+        this.flowControl = flowControl;
+    }
+
+    /**
+     * Queues message to be written during next flush.
+     * Ownership of reference counted messages is passed to the queue.
+     * @param msg message to be written
+     */
+    public void enqueue(Object msg) {
+        this.enqueue(msg, this.overflowPolicy == OverflowPolicy.CONFLATE ? MessageConflationKey.of(msg) : null);
+    }
+
+    /**
+     * Queues message which replaces queued message with the same conflation key, if it was not written yet.
+     * Replaced message keeps its position in the queue.
+     * Ownership of reference counted messages is passed to the queue.
+     * @param msg message to be written
+     * @param key conflation key of the message or null
+     */
+    public void enqueue(Object msg, Object key) {
+        if (this.closed) {
+            this.drop(msg);
+            return;
+        }
+
+        if (msg instanceof VortexControlPacket) {
+            // Control packets are small and must not be dropped by overflow policy
+            this.controlQueue.offer((VortexControlPacket) msg);
+            this.scheduleFlush();
+            return;
+        }
+
+        int size = estimateSize(msg);
+        if (key != null && this.replaceConflated(this.conflatedPackets.replace(key, msg), size)) {
+            return;
+        }
+
+        if (this.queuedBytes.get() + size > this.maxQueuedBytes && !this.onOverflow(size)) {
+            this.drop(msg);
+            return;
+        }
+
+        if (key != null && this.replaceConflated(this.conflatedPackets.put(key, msg), size)) {
+            return;
+        }
+
+        this.queue.offer(key == null ? msg : new ConflationSlot(key));
+        this.queuedPackets.incrementAndGet();
+        this.queuedBytes.addAndGet(size);
+        this.scheduleFlush();
+    }
+
+    private boolean replaceConflated(Object previous, int size) {
+        if (previous == null) {
+            return false;
+        }
+        // Replaced packet was not written yet, new packet is written in its place
+        this.queuedBytes.addAndGet(size - estimateSize(previous));
+        this.conflatedCount.increment();
+        ReferenceCountUtil.release(previous);
+        return true;
+    }
+
+    /**
+     * @param size size of the new message
+     * @return if the message should be queued
+     */
+    private boolean onOverflow(int size) {
+        if (this.overflowHandler != null && this.overflowed.compareAndSet(false, true)) {
+            this.overflowHandler.run();
+        }
+
+        switch (this.overflowPolicy) {
+            case BLOCK:
+                return this.awaitBudget(size);
+            case DROP_OLDEST:
+                Object oldest;
+                while (this.queuedBytes.get() + size > this.maxQueuedBytes && (oldest = this.queue.poll()) != null) {
+                    this.queuedPackets.decrementAndGet();
+                    this.drop(this.unwrap(oldest));
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean awaitBudget(int size) {
+        // Event loop must never wait, it might be the one which drains this queue or serves other nodes
+        if (ThreadExecutorMap.currentExecutor() != null) {
+            return false;
+        }
+
+        this.blockedProducers.incrementAndGet();
+        try {
+            synchronized (this.budgetLock) {
+                while (!this.closed && this.queuedBytes.get() > 0 && this.queuedBytes.get() + size > this.maxQueuedBytes) {
+                    this.budgetLock.wait(BLOCK_CHECK_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.blockedProducers.decrementAndGet();
+        }
+        return !this.closed;
+    }
+
+    private Object unwrap(Object msg) {
+        Object packet = msg instanceof ConflationSlot ? this.conflatedPackets.remove(((ConflationSlot) msg).key) : msg;
+        if (packet != null) {
+            this.queuedBytes.addAndGet(-estimateSize(packet));
+        }
+        return packet;
+    }
+
+    private void drop(Object msg) {
+        if (msg != null) {
+            this.droppedPackets.increment();
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
+    private static int estimateSize(Object msg) {
+        if (msg instanceof VortexGatePacket) {
+            return ((VortexGatePacket) msg).getPayload().readableBytes();
+        } else if (msg instanceof VortexPacket) {
+            // Not encoded yet, so the real size is not known
+            return ((VortexPacket) msg).getSizeHint();
+        }
+        return VortexPacket.DEFAULT_SIZE_HINT;
+    }
+
+    /**
+     * Writes all queued messages immediately if called from the event loop. Otherwise flush is scheduled.
+     */
+    public void flush() {
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.flush0();
+        } else {
+            this.scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            this.channel.eventLoop().execute(this.flushTask);
+        }
+    }
+
+    private void flush0() {
+        this.flushScheduled.set(false);
+        if (this.closed || !this.channel.isActive()) {
+            this.clear();
+            return;
+        }
+
+        // Do not drain packets queued while flushing, so producers can not starve the event loop
+        int remaining = this.queuedPackets.get();
+        int batchSize = 0;
+        List<VortexPacket> pending = this.batchPackets ? new ObjectArrayList<>() : null;
+
+        // Control packets do not wait for credits, so heartbeat and subscriptions are not stalled by exhausted window
+        VortexControlPacket controlPacket;
+        while (this.channel.isWritable() && (controlPacket = this.controlQueue.poll()) != null) {
+            this.channel.write(controlPacket, this.channel.voidPromise());
+            batchSize++;
+        }
+
+        Object msg;
+        while (remaining-- > 0 && this.canWrite() && (msg = this.queue.poll()) != null) {
+            this.queuedPackets.decrementAndGet();
+            if ((msg = this.unwrap(msg)) == null) {
+                continue;
+            }
+
+            // Reference counted packets are already encoded and can not be part of the batch
+            if (pending != null && msg instanceof VortexPacket && !(msg instanceof ReferenceCounted)) {
+                pending.add((VortexPacket) msg);
+                if (pending.size() < this.maxBatchPackets) {
+                    continue;
+                }
+                batchSize += this.writePending(pending);
+            } else {
+                if (pending != null && !pending.isEmpty()) {
+                    batchSize += this.writePending(pending);
+                }
+                this.channel.write(msg, this.channel.voidPromise());
+                batchSize++;
+            }
+
+            if (batchSize >= this.maxBatchPackets || this.getPendingBytes() >= this.maxBatchBytes) {
+                this.flushBatch(batchSize);
+                batchSize = 0;
+            }
+        }
+
+        if (pending != null && !pending.isEmpty()) {
+            batchSize += this.writePending(pending);
+        }
+
+        if (batchSize > 0) {
+            this.flushBatch(batchSize);
+        }
+
+        if (this.overflowed.get() && this.queuedBytes.get() < this.maxQueuedBytes && this.overflowPolicy != OverflowPolicy.DISCONNECT) {
+            this.overflowed.set(false);
+        }
+
+        if (this.blockedProducers.get() > 0) {
+            synchronized (this.budgetLock) {
+                this.budgetLock.notifyAll();
+            }
+        }
+
+        // Remaining packets are written once the channel becomes writable again or credits are granted
+        if ((!this.queue.isEmpty() && this.canWrite()) || (!this.controlQueue.isEmpty() && this.channel.isWritable())) {
+            this.scheduleFlush();
+        }
+    }
+
+    private boolean canWrite() {
+        return this.channel.isWritable() && (this.flowControl == null || this.flowControl.hasCredit());
+    }
+
+    private int writePending(List<VortexPacket> pending) {
+        int size = pending.size();
+        if (size == 1) {
+            this.channel.write(pending.get(0), this.channel.voidPromise());
+        } else {
+            this.channel.write(new VortexPacketBatch(new ObjectArrayList<>(pending)), this.channel.voidPromise());
+        }
+        pending.clear();
+        return size;
+    }
+
+    private void flushBatch(int batchSize) {
+        this.channel.flush();
+        this.flushCount.increment();
+        this.flushedPackets.add(batchSize);
+        if (batchSize > this.maxBatchSize) {
+            this.maxBatchSize = batchSize;
+        }
+    }
+
+    private long getPendingBytes() {
+        ChannelOutboundBuffer outboundBuffer = this.channel.unsafe().outboundBuffer();
+        return outboundBuffer == null ? 0 : outboundBuffer.totalPendingWriteBytes();
+    }
+
+    private void clear() {
+        this.controlQueue.clear();
+        Object msg;
+        while ((msg = this.queue.poll()) != null) {
+            this.queuedPackets.decrementAndGet();
+            this.drop(this.unwrap(msg));
+        }
+
+        synchronized (this.budgetLock) {
+            this.budgetLock.notifyAll();
+        }
+    }
+
+    /**
+     * Closes the queue and releases all messages which were not written yet.
+     */
+    public void close() {
+        this.closed = true;
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.clear();
+        } else {
+            this.channel.eventLoop().execute(this::clear);
+        }
+    }
+
+    public int getQueuedPackets() {
+        return this.queuedPackets.get();
+    }
+
+    /**
+     * @return estimated size of packets waiting in the queue
+     */
+    public long getQueuedBytes() {
+        return this.queuedBytes.get();
+    }
+
+    /**
+     * @return packets which were replaced by newer packet with the same conflation key
+     */
+    public long getConflatedPackets() {
+        return this.conflatedCount.sum();
+    }
+
+    public long getFlushCount() {
+        return this.flushCount.sum();
+    }
+
+    public long getFlushedPackets() {
+        return this.flushedPackets.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long flushes = this.flushCount.sum();
+        return flushes == 0 ? 0 : (double) this.flushedPackets.sum() / flushes;
+    }
+
+    /**
+     * @return messages which were released without being written because the queue was closed or overflowed
+     */
+    public long getDroppedPackets() {
+        return this.droppedPackets.sum();
+    }
+
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    /**
+     * Queue entry of conflatable packet. The packet itself is held in the conflation map, so it can be replaced.
+     */
+    private static class ConflationSlot {
+        private final Object key;
+
+        private ConflationSlot(Object key) {
+            this.key = key;
+        }
+    }
+}
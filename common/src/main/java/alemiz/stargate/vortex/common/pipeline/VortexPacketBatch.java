@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.pipeline;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+
+import java.util.List;
+
+/**
+ * Group of packets which will be encoded to single VortexBatchPacket.
+ */
+public class VortexPacketBatch {
+
+    private final List<VortexPacket> packets;
+
+    public VortexPacketBatch(List<VortexPacket> packets) {
+        this.packets = packets;
+    }
+
+    public List<VortexPacket> getPackets() {
+        return this.packets;
+    }
+}
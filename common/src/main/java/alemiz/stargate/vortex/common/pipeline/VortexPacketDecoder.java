@@ -15,45 +15,189 @@
 
 package alemiz.stargate.vortex.common.pipeline;
 
+import alemiz.stargate.protocol.StarGatePacket;
 import alemiz.stargate.vortex.common.VortexProtocolException;
+import alemiz.stargate.vortex.common.compression.ChannelDictionaries;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
+import alemiz.stargate.vortex.common.compression.ZstdContext;
 import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.metrics.NodeMetrics;
+import alemiz.stargate.vortex.common.metrics.TopicMetrics;
+import alemiz.stargate.vortex.common.metrics.VortexMetrics;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
 import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import alemiz.stargate.vortex.common.protocol.packet.VortexRelayPacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexResponse;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexBatchPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexDictionaryPacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
-import com.github.luben.zstd.Zstd;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import lombok.extern.log4j.Log4j2;
 
-import java.nio.ByteBuffer;
 import java.util.List;
 
 @Log4j2
-public class VortexPacketDecoder extends MessageToMessageDecoder<VortexGatePacket> {
+public class VortexPacketDecoder extends MessageToMessageDecoder<StarGatePacket> {
     public static final String NAME = "vortex-decoder";
 
     private final VortexPacketPool packetPool;
+    private final boolean serverSide;
+    private final boolean relayMessages;
+    private final CompressionPolicy compressionPolicy;
+    private final ChannelDictionaries dictionaries;
+    private final ChannelHeartbeat heartbeat;
+    private final ChannelFlowControl flowControl;
+    private final NodeMetrics nodeMetrics;
+    private final VortexMetrics metrics;
 
-    public VortexPacketDecoder(VortexPacketPool packetPool) {
+    /**
+     * @param packetPool packet pool used to construct received packets
+     * @param serverSide if the channel is served by the broker, which never accepts dictionaries from its peers
+     * @param relayMessages if message packets should be passed as VortexRelayPacket without decoding the payload
+     * @param compressionPolicy compression policy which holds dictionaries and collects dictionary samples
+     * @param dictionaries dictionaries available on this channel
+     * @param heartbeat heartbeat state of the channel
+     * @param flowControl flow control state of the channel
+     * @param nodeMetrics metrics of the node which owns the channel
+     * @param metrics metrics registry used to record topic traffic published to the broker
+     */
+    public VortexPacketDecoder(VortexPacketPool packetPool, boolean serverSide, boolean relayMessages, CompressionPolicy compressionPolicy, ChannelDictionaries dictionaries,
+                               ChannelHeartbeat heartbeat, ChannelFlowControl flowControl, NodeMetrics nodeMetrics, VortexMetrics metrics) {
         this.packetPool = packetPool;
+        this.serverSide = serverSide;
+        this.relayMessages = relayMessages;
+        this.compressionPolicy = compressionPolicy;
+        this.dictionaries = dictionaries;
+        this.heartbeat = heartbeat;
+        this.flowControl = flowControl;
+        this.nodeMetrics = nodeMetrics;
+        this.metrics = metrics;
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, VortexGatePacket packet, List<Object> out) throws Exception {
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        return msg instanceof VortexGatePacket || msg instanceof VortexBatchPacket || msg instanceof VortexDictionaryPacket;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, StarGatePacket packet, List<Object> out) throws Exception {
+        this.heartbeat.onRead();
+        if (packet instanceof VortexDictionaryPacket) {
+            this.onDictionary((VortexDictionaryPacket) packet);
+        } else if (packet instanceof VortexBatchPacket) {
+            VortexBatchPacket batch = (VortexBatchPacket) packet;
+            int size = batch.getPayload().readableBytes();
+            this.flowControl.onReceived(size, batch.getPacketCount());
+            long startTime = System.nanoTime();
+            this.decodeBatch(batch, out);
+            this.nodeMetrics.recordInbound(batch.getPacketCount(), size, uncompressedSize(size, batch.getCompression(), batch.getUncompressedSize()),
+                    System.nanoTime() - startTime);
+        } else {
+            VortexGatePacket gatePacket = (VortexGatePacket) packet;
+            if (gatePacket.getTimestamp() != 0) {
+                this.heartbeat.onTimestamp(gatePacket.getTimestamp(), gatePacket.getEchoTimestamp(), gatePacket.getEchoDelay());
+            }
+            int size = gatePacket.getPayload().readableBytes();
+            this.flowControl.onReceived(size, 1);
+            long startTime = System.nanoTime();
+            this.decodeGatePacket(gatePacket, out);
+            this.nodeMetrics.recordInbound(1, size, uncompressedSize(size, gatePacket.getCompression(), gatePacket.getUncompressedSize()),
+                    System.nanoTime() - startTime);
+        }
+    }
+
+    private static long uncompressedSize(int size, CompressionEnum compression, long uncompressedSize) {
+        return compression == CompressionEnum.NO_COMPRESS ? size : uncompressedSize;
+    }
+
+    private void onDictionary(VortexDictionaryPacket packet) {
+        if (this.serverSide || this.compressionPolicy.isDictionaryTraining()) {
+            // Dictionaries are distributed only by the side which trains them. Policy of the broker is shared
+            // by all channels, so dictionary of one client would replace dictionaries used for other nodes
+            log.debug("Ignoring received dictionary " + packet.getDictionaryId());
+            return;
+        }
+        this.compressionPolicy.registerDictionary(packet.getDictionaryId(), packet.getVortexPacketId(), packet.getDictionary());
+        this.dictionaries.markAvailable(packet.getDictionaryId());
+    }
+
+    private void decodeBatch(VortexBatchPacket batch, List<Object> out) {
+        ByteBuf decompressed = this.decompress(batch.getPayload(), batch.getCompression(), batch.getUncompressedSize());
+        try {
+            for (int i = 0; i < batch.getPacketCount(); i++) {
+                VortexGatePacket entry = new VortexGatePacket();
+                entry.decodePayload(decompressed);
+                try {
+                    this.decodeGatePacket(entry, out);
+                } finally {
+                    entry.release();
+                }
+            }
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    private void decodeGatePacket(VortexGatePacket packet, List<Object> out) {
+        // Only the broker receives published messages, other nodes receive deliveries
+        if (this.serverSide && packet.isMessageHeader() && !packet.getTopic().isEmpty()) {
+            TopicMetrics topicMetrics = this.metrics.getTopicMetrics(packet.getTopic().trim());
+            if (topicMetrics != null) {
+                topicMetrics.recordPublished(packet.getPayload().readableBytes());
+            }
+        }
+
+        if (this.relayMessages && packet.isMessageHeader()) {
+            if (this.compressionPolicy.shouldSample(packet.getVortexPacketId())) {
+                ByteBuf sample = this.decompress(packet.getPayload(), packet.getCompression(), packet.getUncompressedSize(), packet.getDictionaryId());
+                try {
+                    this.compressionPolicy.addSample(packet.getVortexPacketId(), sample);
+                } finally {
+                    sample.release();
+                }
+            }
+            out.add(new VortexRelayPacket(packet, this.getDictionary(packet.getDictionaryId())));
+            return;
+        }
+
         VortexPacket vortexPacket = this.packetPool.constructPacket(packet.getVortexPacketId());
         if (vortexPacket == null) {
             log.debug("Received unknown Vortex packet with ID " + packet.getVortexPacketId());
             return;
         }
 
-        ByteBuf decompressed = this.decompress(packet.getPayload(), packet.getCompression(), packet.getUncompressedSize());
+        if (packet.isMessageHeader() && !(vortexPacket instanceof VortexMessagePacket)) {
+            throw new VortexProtocolException("Received message header for non-message packet " + vortexPacket.getClass().getSimpleName());
+        }
+
+        ByteBuf decompressed = this.decompress(packet.getPayload(), packet.getCompression(), packet.getUncompressedSize(), packet.getDictionaryId());
         try {
+            if (this.compressionPolicy.shouldSample(packet.getVortexPacketId())) {
+                this.compressionPolicy.addSample(packet.getVortexPacketId(), decompressed);
+            }
+
             if (vortexPacket instanceof VortexResponse) {
                 ((VortexResponse) vortexPacket).setResponseId(decompressed.readLong());
             }
-            vortexPacket.decodePayload(decompressed);
+
+            if (packet.isMessageHeader()) {
+                VortexMessagePacket message = (VortexMessagePacket) vortexPacket;
+                message.setTargetNode(packet.getTargetNode());
+                message.setTopic(packet.getTopic());
+                message.setSenderNode(packet.getSenderNode());
+                message.setRetainKey(packet.getRetainKey());
+                message.setRoutingKey(packet.getRoutingKey());
+                message.setAttributes(packet.getAttributes());
+                message.setConflationKey(packet.getConflationKey());
+                message.setTopicOffset(packet.getTopicOffset());
+                message.decode(decompressed);
+            } else {
+                vortexPacket.decodePayload(decompressed);
+            }
             out.add(vortexPacket);
         } catch (Throwable t) {
             throw new VortexProtocolException("Unable to decode packet " + packet.getClass().getSimpleName(), t);
@@ -64,21 +208,23 @@ public class VortexPacketDecoder extends MessageToMessageDecoder<VortexGatePacke
         }
     }
 
-    private ByteBuf decompress(ByteBuf buffer, CompressionEnum compression, long decompressedSize) {
+    private ByteBuf decompress(ByteBuf buffer, CompressionEnum compression, long decompressedSize, int dictionaryId) {
         if (compression == CompressionEnum.NO_COMPRESS) {
             return buffer.retain();
         }
 
-        ByteBuf decompressed = buffer.alloc().directBuffer((int) decompressedSize);
-        if (buffer.hasMemoryAddress()) {
-            Zstd.decompressUnsafe(decompressed.memoryAddress(), decompressedSize, buffer.memoryAddress() + buffer.readerIndex(), buffer.readableBytes());
-        } else {
-            ByteBuffer compressedNio = buffer.nioBuffer(buffer.readerIndex(), buffer.readableBytes());
-            ByteBuffer decompressedNio = decompressed.nioBuffer(0, (int) decompressedSize);
-            Zstd.decompress(decompressedNio, compressedNio);
+        return ZstdContext.get().decompress(buffer, (int) decompressedSize, this.getDictionary(dictionaryId));
+    }
+
+    private VortexDictionary getDictionary(int dictionaryId) {
+        VortexDictionary dictionary = null;
+        if (dictionaryId != 0 && (dictionary = this.compressionPolicy.getDictionary(dictionaryId)) == null) {
+            throw new VortexProtocolException("Received packet compressed with unknown dictionary " + dictionaryId);
         }
+        return dictionary;
+    }
 
-        decompressed.writerIndex((int) decompressedSize);
-        return decompressed;
+    private ByteBuf decompress(ByteBuf buffer, CompressionEnum compression, long decompressedSize) {
+        return this.decompress(buffer, compression, decompressedSize, 0);
     }
 }
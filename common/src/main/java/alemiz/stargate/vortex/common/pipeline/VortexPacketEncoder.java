@@ -17,49 +17,195 @@ package alemiz.stargate.vortex.common.pipeline;
 
 import alemiz.stargate.StarGateSession;
 import alemiz.stargate.vortex.common.VortexProtocolException;
+import alemiz.stargate.vortex.common.compression.ChannelDictionaries;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
+import alemiz.stargate.vortex.common.compression.ZstdContext;
 import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.metrics.NodeMetrics;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexRelayPacket;
 import alemiz.stargate.vortex.common.protocol.packet.VortexResponse;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexBatchPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexDictionaryPacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
-import com.github.luben.zstd.Zstd;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 
-import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.function.IntPredicate;
 
-public class VortexPacketEncoder extends MessageToMessageEncoder<VortexPacket> {
+public class VortexPacketEncoder extends MessageToMessageEncoder<Object> {
     public static final String NAME = "vortex-encoder";
 
     private final StarGateSession session;
-    private final CompressionEnum compression;
-    private final int compressionLevel;
+    private final CompressionPolicy compressionPolicy;
+    private final ChannelDictionaries dictionaries;
+    private final ChannelHeartbeat heartbeat;
+    private final ChannelFlowControl flowControl;
+    private final NodeMetrics metrics;
 
-    public VortexPacketEncoder(StarGateSession session, CompressionEnum compression, int compressionLevel) {
+    public VortexPacketEncoder(StarGateSession session, CompressionPolicy compressionPolicy, ChannelDictionaries dictionaries,
+                               ChannelHeartbeat heartbeat, ChannelFlowControl flowControl, NodeMetrics metrics) {
         this.session = session;
-        this.compression = compression;
-        this.compressionLevel = compressionLevel;
+        this.compressionPolicy = compressionPolicy;
+        this.dictionaries = dictionaries;
+        this.heartbeat = heartbeat;
+        this.flowControl = flowControl;
+        this.metrics = metrics;
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, VortexPacket vortexPacket, List<Object> out) throws Exception {
-        ByteBuf buffer = ctx.channel().alloc().ioBuffer();
+    public boolean acceptOutboundMessage(Object msg) throws Exception {
+        return msg instanceof VortexPacket || msg instanceof VortexPacketBatch || msg instanceof VortexGatePacket ||
+                msg instanceof VortexDictionaryPacket;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) throws Exception {
+        if (msg instanceof VortexDictionaryPacket) {
+            // Dictionary is written before any packet compressed with it
+            this.dictionaries.markAvailable(((VortexDictionaryPacket) msg).getDictionaryId());
+            out.add(msg);
+        } else if (msg instanceof VortexPacketBatch) {
+            long startTime = System.nanoTime();
+            VortexBatchPacket batch = encodeBatch(ctx.channel().alloc(), ((VortexPacketBatch) msg).getPackets(), this.compressionPolicy);
+            this.metrics.recordEncodeTime(System.nanoTime() - startTime);
+            this.metrics.recordOutbound(batch.getPacketCount(), batch.getPayload().readableBytes(), batch.getUncompressedSize());
+            this.flowControl.consume(batch.getPayload().readableBytes(), batch.getPacketCount());
+            out.add(batch);
+        } else if (msg instanceof VortexGatePacket) {
+            // Encoder releases the message once encoded
+            this.writeGatePacket(((VortexGatePacket) msg).retain(), out);
+        } else if (msg instanceof VortexRelayPacket) {
+            this.writeGatePacket(((VortexRelayPacket) msg).toGatePacket(), out);
+        } else {
+            long startTime = System.nanoTime();
+            VortexGatePacket packet = encodePacket(ctx.channel().alloc(), (VortexPacket) msg, this.compressionPolicy, this.dictionaries::isAvailable);
+            this.metrics.recordEncodeTime(System.nanoTime() - startTime);
+            this.recordOutbound(packet);
+            this.heartbeat.stamp(packet);
+            out.add(packet);
+        }
+    }
+
+    private void recordOutbound(VortexGatePacket packet) {
+        int size = packet.getPayload().readableBytes();
+        this.flowControl.consume(size, 1);
+        // Uncompressed size of relayed frames is known only if they are compressed
+        this.metrics.recordOutbound(1, size, packet.getCompression() == CompressionEnum.NO_COMPRESS ? size : packet.getUncompressedSize());
+    }
+
+    private void writeGatePacket(VortexGatePacket packet, List<Object> out) {
+        int dictionaryId = packet.getDictionaryId();
+        if (dictionaryId != 0 && !this.dictionaries.isAvailable(dictionaryId)) {
+            // Already encoded frame was compressed with dictionary which was not sent to this channel yet
+            this.writeDictionary(dictionaryId, out);
+        }
+        this.recordOutbound(packet);
+        this.heartbeat.stamp(packet);
+        out.add(packet);
+    }
+
+    private void writeDictionary(int dictionaryId, List<Object> out) {
+        VortexDictionary dictionary = this.compressionPolicy.getDictionary(dictionaryId);
+        if (dictionary == null) {
+            throw new VortexProtocolException("Unknown compression dictionary " + dictionaryId);
+        }
+
+        VortexDictionaryPacket packet = new VortexDictionaryPacket();
+        packet.setDictionaryId(dictionaryId);
+        packet.setVortexPacketId(dictionary.getPacketId());
+        packet.setDictionary(dictionary.getData());
+        this.dictionaries.markAvailable(dictionaryId);
+        out.add(packet);
+    }
+
+    /**
+     * Encodes multiple packets to single VortexBatchPacket. Packets are compressed together in one pass.
+     * @param alloc allocator used to allocate payload buffers
+     * @param packets packets to be encoded
+     * @param policy compression policy which decides if the batch should be compressed
+     * @return encoded VortexBatchPacket
+     */
+    public static VortexBatchPacket encodeBatch(ByteBufAllocator alloc, List<VortexPacket> packets, CompressionPolicy policy) {
+        ByteBuf buffer = alloc.ioBuffer();
         try {
-            if (vortexPacket instanceof VortexResponse) {
-                buffer.writeLong(((VortexResponse) vortexPacket).getResponseId());
+            for (VortexPacket packet : packets) {
+                VortexGatePacket entry = encodePacket(alloc, packet, CompressionEnum.NO_COMPRESS, 0);
+                try {
+                    entry.encodePayload(buffer);
+                } finally {
+                    entry.release();
+                }
             }
-            vortexPacket.encodePayload(buffer);
 
             int decompressedSize = buffer.readableBytes();
-            ByteBuf payload = this.compress(buffer);
+            CompressionEnum compression = policy.selectBatch(decompressedSize);
+            ByteBuf payload = compress(buffer, compression, policy.getCompressionLevel());
 
-            VortexGatePacket packet = new VortexGatePacket();
-            packet.setVortexPacketId(vortexPacket.getPacketId());
-            packet.setCompression(this.compression);
-            packet.setUncompressedSize(decompressedSize);
-            packet.setPayload(payload);
-            out.add(packet);
+            VortexBatchPacket batch = new VortexBatchPacket();
+            batch.setPacketCount(packets.size());
+            batch.setCompression(compression);
+            batch.setUncompressedSize(decompressedSize);
+            batch.setPayload(payload);
+            return batch;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Encodes Vortex packet to VortexGatePacket which can be written directly to the channel.
+     * Compression method is selected by the compression policy.
+     * Returned packet holds reference counted payload which should be released once it is no longer used.
+     * @param alloc allocator used to allocate payload buffers
+     * @param vortexPacket packet to be encoded
+     * @param policy compression policy which selects compression method
+     * @param dictionaryAvailable tests if dictionary with given ID is known to the receiver, may be null
+     * @return encoded VortexGatePacket
+     */
+    public static VortexGatePacket encodePacket(ByteBufAllocator alloc, VortexPacket vortexPacket, CompressionPolicy policy, IntPredicate dictionaryAvailable) {
+        if (vortexPacket instanceof VortexRelayPacket) {
+            // Relayed payload is already encoded and compressed
+            return ((VortexRelayPacket) vortexPacket).toGatePacket();
+        }
+
+        ByteBuf buffer = alloc.ioBuffer();
+        try {
+            VortexMessagePacket message = writePacket(buffer, vortexPacket);
+
+            short packetId = vortexPacket.getPacketId();
+            int decompressedSize = buffer.readableBytes();
+            CompressionEnum compression = policy.select(packetId, decompressedSize);
+
+            ByteBuf payload;
+            VortexDictionary dictionary = null;
+            if (compression == CompressionEnum.NO_COMPRESS) {
+                payload = buffer.retain();
+                policy.recordUncompressed(packetId, decompressedSize);
+            } else {
+                if (compression == CompressionEnum.ZSTANDARD && dictionaryAvailable != null) {
+                    dictionary = policy.getPacketDictionary(packetId);
+                    if (dictionary != null && !dictionaryAvailable.test(dictionary.getDictionaryId())) {
+                        dictionary = null;
+                    }
+                }
+
+                long startTime = System.nanoTime();
+                payload = dictionary == null ? compress(buffer, compression, policy.getCompressionLevel()) :
+                        ZstdContext.get().compress(buffer, policy.getCompressionLevel(), dictionary);
+                policy.recordCompressed(packetId, decompressedSize, payload.readableBytes(), System.nanoTime() - startTime);
+            }
+
+            VortexGatePacket packet = createGatePacket(packetId, message, payload, compression, decompressedSize);
+            if (dictionary != null) {
+                packet.setDictionaryId(dictionary.getDictionaryId());
+            }
+            return packet;
         } catch (Throwable t) {
             throw new VortexProtocolException("Unable to encode packet " + vortexPacket.getClass().getSimpleName(), t);
         } finally {
@@ -67,26 +213,74 @@ public class VortexPacketEncoder extends MessageToMessageEncoder<VortexPacket> {
         }
     }
 
-    private ByteBuf compress(ByteBuf buffer) {
-        if (compression == CompressionEnum.NO_COMPRESS) {
-            return buffer.retain();
+    /**
+     * Encodes and compresses Vortex packet to VortexGatePacket using given compression method.
+     * Returned packet holds reference counted payload which should be released once it is no longer used.
+     * @param alloc allocator used to allocate payload buffers
+     * @param vortexPacket packet to be encoded
+     * @param compression compression method which should be used
+     * @param compressionLevel level of compression
+     * @return encoded VortexGatePacket
+     */
+    public static VortexGatePacket encodePacket(ByteBufAllocator alloc, VortexPacket vortexPacket, CompressionEnum compression, int compressionLevel) {
+        if (vortexPacket instanceof VortexRelayPacket) {
+            // Relayed payload is already encoded and compressed
+            return ((VortexRelayPacket) vortexPacket).toGatePacket();
         }
 
-        int decompressedSize =  buffer.readableBytes();
-        int compressedSize = (int) Zstd.compressBound(decompressedSize);
+        ByteBuf buffer = alloc.ioBuffer();
+        try {
+            VortexMessagePacket message = writePacket(buffer, vortexPacket);
 
-        ByteBuf compressed = buffer.alloc().directBuffer(compressedSize);
+            int decompressedSize = buffer.readableBytes();
+            ByteBuf payload = compress(buffer, compression, compressionLevel);
+            return createGatePacket(vortexPacket.getPacketId(), message, payload, compression, decompressedSize);
+        } catch (Throwable t) {
+            throw new VortexProtocolException("Unable to encode packet " + vortexPacket.getClass().getSimpleName(), t);
+        } finally {
+            buffer.release();
+        }
+    }
 
-        if (buffer.hasMemoryAddress()) {
-            compressedSize = (int) Zstd.compressUnsafe(compressed.memoryAddress(), compressedSize, buffer.memoryAddress() + buffer.readerIndex(),
-                    decompressedSize, this.compressionLevel);
-        } else {
-            ByteBuffer compressedNio = compressed.nioBuffer(0, compressedSize);
-            ByteBuffer decompressedNio = buffer.nioBuffer(buffer.readerIndex(), buffer.readableBytes());
-            compressedSize = Zstd.compress(compressedNio, decompressedNio, this.compressionLevel);
+    private static VortexMessagePacket writePacket(ByteBuf buffer, VortexPacket vortexPacket) {
+        if (vortexPacket instanceof VortexResponse) {
+            buffer.writeLong(((VortexResponse) vortexPacket).getResponseId());
         }
 
-        compressed.writerIndex(compressedSize);
-        return compressed;
+        if (vortexPacket instanceof VortexMessagePacket) {
+            // Routing information is written to the uncompressed header
+            VortexMessagePacket message = (VortexMessagePacket) vortexPacket;
+            message.encode(buffer);
+            return message;
+        }
+
+        vortexPacket.encodePayload(buffer);
+        return null;
+    }
+
+    private static VortexGatePacket createGatePacket(short packetId, VortexMessagePacket message, ByteBuf payload, CompressionEnum compression, int decompressedSize) {
+        VortexGatePacket packet = new VortexGatePacket();
+        packet.setVortexPacketId(packetId);
+        packet.setCompression(compression);
+        packet.setUncompressedSize(decompressedSize);
+        packet.setPayload(payload);
+        if (message != null) {
+            packet.setMessageHeader(true);
+            packet.setTargetNode(message.getTargetNode());
+            packet.setTopic(message.getTopic());
+            packet.setSenderNode(message.getSenderNode());
+            packet.setRetainKey(message.getRetainKey());
+            packet.setRoutingKey(message.getRoutingKey());
+            packet.setAttributes(message.getAttributes());
+            packet.setConflationKey(message.getConflationKey());
+        }
+        return packet;
+    }
+
+    private static ByteBuf compress(ByteBuf buffer, CompressionEnum compression, int compressionLevel) {
+        if (compression == CompressionEnum.NO_COMPRESS) {
+            return buffer.retain();
+        }
+        return ZstdContext.get().compress(buffer, compressionLevel, null);
     }
 }
@@ -15,6 +15,7 @@
 
 package alemiz.stargate.vortex.common.protocol;
 
+import alemiz.stargate.vortex.common.data.CompressionEnum;
 import alemiz.stargate.vortex.common.protocol.packet.*;
 import alemiz.stargate.vortex.common.protocol.packet.VortexPacket;
 import it.unimi.dsi.fastutil.objects.Object2ShortMap;
@@ -24,21 +25,38 @@ import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 
 public class VortexPacketPool {
 
+    /**
+     * Version of the Vortex frame format. Handshake of older nodes does not carry the version and is read as 1.
+     * Version 2 added frame flags, uncompressed message header, batch and dictionary frames.
+     */
+    public static final int VORTEX_PROTOCOL_VERSION = 2;
+
     public static final byte VORTEX_GATE_PACKET = (byte) 0xdc;
     public static final byte VORTEX_CLIENT_HANDSHAKE_PACKET = (byte) 0xdd;
+    public static final byte VORTEX_BATCH_PACKET = (byte) 0xde;
+    public static final byte VORTEX_DICTIONARY_PACKET = (byte) 0xdf;
 
     public static final short VORTEX_LATENCY_PACKET = 0;
     public static final short VORTEX_CHILD_INFO_PACKET = 1;
     public static final short VORTEX_TOPIC_SUBSCRIBE_PACKET = 3;
+    public static final short VORTEX_FLOW_CONTROL_PACKET = 4;
+    public static final short VORTEX_TOPIC_ACK_PACKET = 5;
 
     private final Short2ObjectMap<PacketFactory> packetFactoryMap = new Short2ObjectOpenHashMap<>();
     private final Object2ShortMap<Class<? extends VortexPacket>> packetIdMap = new Object2ShortOpenHashMap<>();
+    private final Short2ObjectMap<CompressionEnum> compressionOverrides = new Short2ObjectOpenHashMap<>();
 
     public VortexPacketPool() {
         // Register default packets
         this.registerPacket(VortexLatencyPacket.class, VORTEX_LATENCY_PACKET, VortexLatencyPacket::new);
         this.registerPacket(VortexChildInfoPacket.class, VORTEX_CHILD_INFO_PACKET, VortexChildInfoPacket::new);
         this.registerPacket(VortexTopicSubscribePacket.class, VORTEX_TOPIC_SUBSCRIBE_PACKET, VortexTopicSubscribePacket::new);
+        this.registerPacket(VortexFlowControlPacket.class, VORTEX_FLOW_CONTROL_PACKET, VortexFlowControlPacket::new);
+        this.registerPacket(VortexTopicAckPacket.class, VORTEX_TOPIC_ACK_PACKET, VortexTopicAckPacket::new);
+
+        // Latency and flow control packets are tiny and sent very often
+        this.setPacketCompression(VORTEX_LATENCY_PACKET, CompressionEnum.NO_COMPRESS);
+        this.setPacketCompression(VORTEX_FLOW_CONTROL_PACKET, CompressionEnum.NO_COMPRESS);
     }
 
     public <T extends VortexPacket> VortexPacket constructPacket(Class<T> packetClass) {
@@ -88,4 +106,21 @@ public class VortexPacketPool {
         this.packetFactoryMap.remove(packetId);
     }
 
+    /**
+     * Overrides compression method used for the packet ID regardless of packet size.
+     * @param packetId ID of the packet
+     * @param compression compression to be used or null to remove the override
+     */
+    public void setPacketCompression(short packetId, CompressionEnum compression) {
+        if (compression == null) {
+            this.compressionOverrides.remove(packetId);
+        } else {
+            this.compressionOverrides.put(packetId, compression);
+        }
+    }
+
+    public CompressionEnum getPacketCompression(short packetId) {
+        return this.compressionOverrides.get(packetId);
+    }
+
 }
@@ -0,0 +1,24 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package alemiz.stargate.vortex.common.protocol.packet;
+
+/**
+ * Packet which keeps the connection and subscriptions working, such as heartbeat or flow control.
+ * Control packets are written ahead of queued messages and are not held back by flow control credits.
+ */
+public interface VortexControlPacket extends VortexPacket {
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.protocol.packet;
+
+import alemiz.stargate.protocol.types.PacketHelper;
+import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
+import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Sent by the broker to grant additional send window to the node.
+ * Credits are added to the current window, first grant enables flow control on the receiving node.
+ */
+@Data
+@ToString
+@EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
+public class VortexFlowControlPacket implements VortexControlPacket {
+
+    private long creditBytes;
+    private int creditMessages;
+
+    @Override
+    public void encodePayload(ByteBuf buffer) {
+        PacketHelper.writeLong(buffer, this.creditBytes);
+        PacketHelper.writeInt(buffer, this.creditMessages);
+    }
+
+    @Override
+    public void decodePayload(ByteBuf buffer) {
+        this.creditBytes = PacketHelper.readLong(buffer);
+        this.creditMessages = PacketHelper.readInt(buffer);
+    }
+
+    @Override
+    public boolean handle(VortexPacketListener listener) {
+        return false;
+    }
+
+    @Override
+    public short getPacketId() {
+        return VortexPacketPool.VORTEX_FLOW_CONTROL_PACKET;
+    }
+}
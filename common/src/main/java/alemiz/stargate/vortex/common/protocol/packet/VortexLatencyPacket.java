@@ -26,21 +26,37 @@ import lombok.ToString;
 @Data
 @ToString
 @EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
-public class VortexLatencyPacket implements VortexPacket {
+public class VortexLatencyPacket implements VortexControlPacket {
 
+    /**
+     * System.nanoTime() of the node which sent the ping, echoed back in pong.
+     */
     private long sendTime;
     private boolean pong;
+    /**
+     * Wall clock timestamps in microseconds used to estimate clock offset between nodes.
+     * Ping time is set by the pinging node, receive and pong time are set by the remote node.
+     */
+    private long pingTime;
+    private long receiveTime;
+    private long pongTime;
 
     @Override
     public void encodePayload(ByteBuf buffer) {
         PacketHelper.writeLong(buffer, this.sendTime);
         PacketHelper.writeBoolean(buffer, this.pong);
+        PacketHelper.writeLong(buffer, this.pingTime);
+        PacketHelper.writeLong(buffer, this.receiveTime);
+        PacketHelper.writeLong(buffer, this.pongTime);
     }
 
     @Override
     public void decodePayload(ByteBuf buffer) {
         this.sendTime = PacketHelper.readLong(buffer);
         this.pong = PacketHelper.readBoolean(buffer);
+        this.pingTime = PacketHelper.readLong(buffer);
+        this.receiveTime = PacketHelper.readLong(buffer);
+        this.pongTime = PacketHelper.readLong(buffer);
     }
 
     @Override
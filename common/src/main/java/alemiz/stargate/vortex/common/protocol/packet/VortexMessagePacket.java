@@ -23,6 +23,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @ToString
 @EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
@@ -45,6 +48,47 @@ public abstract class VortexMessagePacket implements VortexPacket {
      */
     private String senderNode;
 
+    /**
+     * Key under which the broker retains the message and delivers it to nodes which subscribe to the topic later.
+     * Only the last message with the same topic and key is retained. Leave null for messages which should not be
+     * retained, use empty string to retain single message per topic.
+     */
+    private String retainKey;
+
+    /**
+     * Key which selects the member of subscription group using CONSISTENT_HASH policy. Messages with the same key
+     * are delivered to the same member in order, as long as the member stays subscribed.
+     */
+    private String routingKey;
+
+    /**
+     * Attributes carried in uncompressed header, so the broker can evaluate subscription filters without decoding the message.
+     * Keep them short, they are not compressed.
+     */
+    private Map<String, String> attributes;
+
+    /**
+     * Key of the state carried by the message. Subscribers which conflate the topic receive only the latest
+     * message with the same key, older messages which were not written to them yet are replaced.
+     */
+    private String conflationKey;
+
+    /**
+     * Offset of the message in durable topic log, 0 if the topic is not durable.
+     * It is carried in the frame header and can be acknowledged using VortexNode.acknowledge().
+     */
+    private long topicOffset;
+
+    public void setAttribute(String name, String value) {
+        if (this.attributes == null) {
+            this.attributes = new HashMap<>();
+        }
+        this.attributes.put(name, value);
+    }
+
+    public String getAttribute(String name) {
+        return this.attributes == null ? null : this.attributes.get(name);
+    }
 
     @Override
     public final void encodePayload(ByteBuf buffer) {
@@ -23,10 +23,24 @@ import java.util.function.Consumer;
 
 public interface VortexPacket {
 
+    /**
+     * Size assumed for packets which do not provide their own size hint.
+     */
+    public static final int DEFAULT_SIZE_HINT = 64;
+
     public void encodePayload(ByteBuf buffer);
     public void decodePayload(ByteBuf buffer);
 
     public boolean handle(VortexPacketListener listener);
 
     public short getPacketId();
+
+    /**
+     * Packets are encoded on the event loop, so packets waiting in the outbound queue are accounted by this estimate.
+     * Packets with large or variable payload should override it, otherwise the outbound budget does not bound their memory.
+     * @return estimated size of the encoded payload in bytes
+     */
+    public default int getSizeHint() {
+        return DEFAULT_SIZE_HINT;
+    }
 }
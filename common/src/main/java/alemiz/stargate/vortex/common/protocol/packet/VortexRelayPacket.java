@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.protocol.packet;
+
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
+import alemiz.stargate.vortex.common.compression.ZstdContext;
+import alemiz.stargate.vortex.common.data.CompressionEnum;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * Message which is only routed by the broker. Routing information is read from the uncompressed
+ * frame header and the compressed payload is forwarded to the target nodes as it was received.
+ * Encoder writes the frame directly, encode() and decode() only copy the payload body.
+ */
+public class VortexRelayPacket extends VortexMessagePacket implements ReferenceCounted {
+
+    private final VortexGatePacket frame;
+    private final VortexDictionary dictionary;
+
+    /**
+     * @param frame received frame, its payload is retained by this packet
+     */
+    public VortexRelayPacket(VortexGatePacket frame) {
+        this(frame, null);
+    }
+
+    /**
+     * @param frame received frame, its payload is retained by this packet
+     * @param dictionary dictionary the payload was compressed with, null if none was used
+     */
+    public VortexRelayPacket(VortexGatePacket frame, VortexDictionary dictionary) {
+        this.frame = frame.retainedDuplicate();
+        this.dictionary = dictionary;
+        this.setTargetNode(frame.getTargetNode());
+        this.setTopic(frame.getTopic());
+        this.setSenderNode(frame.getSenderNode());
+        this.setRetainKey(frame.getRetainKey());
+        this.setRoutingKey(frame.getRoutingKey());
+        this.setAttributes(frame.getAttributes());
+        this.setConflationKey(frame.getConflationKey());
+    }
+
+    /**
+     * Creates frame which can be written to another node without encoding the payload again.
+     * @return retained frame with up-to-date header
+     */
+    public VortexGatePacket toGatePacket() {
+        VortexGatePacket packet = this.frame.retainedDuplicate();
+        packet.setTargetNode(this.getTargetNode());
+        packet.setTopic(this.getTopic());
+        packet.setSenderNode(this.getSenderNode());
+        packet.setRetainKey(this.getRetainKey());
+        packet.setRoutingKey(this.getRoutingKey());
+        packet.setAttributes(this.getAttributes());
+        packet.setConflationKey(this.getConflationKey());
+        return packet;
+    }
+
+    public int getPayloadSize() {
+        return this.frame.getPayload().readableBytes();
+    }
+
+    @Override
+    public int getSizeHint() {
+        return this.getPayloadSize();
+    }
+
+    /**
+     * Writes uncompressed payload body of the relayed frame.
+     */
+    @Override
+    public void encode(ByteBuf buffer) {
+        ByteBuf payload = this.frame.getPayload();
+        if (this.frame.getCompression() == CompressionEnum.NO_COMPRESS) {
+            buffer.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+            return;
+        }
+
+        ByteBuf decompressed = ZstdContext.get().decompress(payload, (int) this.frame.getUncompressedSize(), this.dictionary);
+        try {
+            buffer.writeBytes(decompressed);
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    /**
+     * Replaces payload of the relayed frame with remaining uncompressed bytes of the buffer.
+     */
+    @Override
+    public void decode(ByteBuf buffer) {
+        // Frame is own duplicate of the received frame, so it can be modified
+        ByteBuf previous = this.frame.getPayload();
+        this.frame.setPayload(buffer.readRetainedSlice(buffer.readableBytes()));
+        this.frame.setCompression(CompressionEnum.NO_COMPRESS);
+        this.frame.setUncompressedSize(this.frame.getPayload().readableBytes());
+        this.frame.setDictionaryId(0);
+        previous.release();
+    }
+
+    @Override
+    public short getPacketId() {
+        return this.frame.getVortexPacketId();
+    }
+
+    @Override
+    public int refCnt() {
+        return this.frame.refCnt();
+    }
+
+    @Override
+    public VortexRelayPacket retain() {
+        this.frame.retain();
+        return this;
+    }
+
+    @Override
+    public VortexRelayPacket retain(int increment) {
+        this.frame.retain(increment);
+        return this;
+    }
+
+    @Override
+    public VortexRelayPacket touch() {
+        this.frame.touch();
+        return this;
+    }
+
+    @Override
+    public VortexRelayPacket touch(Object hint) {
+        this.frame.touch(hint);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return this.frame.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return this.frame.release(decrement);
+    }
+}
@@ -16,6 +16,7 @@
 package alemiz.stargate.vortex.common.protocol.packet;
 
 import alemiz.stargate.protocol.types.PacketHelper;
+import alemiz.stargate.vortex.common.data.GroupPolicy;
 import alemiz.stargate.vortex.common.protocol.VortexPacketListener;
 import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
 import io.netty.buffer.ByteBuf;
@@ -23,24 +24,71 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
+/**
+ * Subscribes the node to the topic. Besides being sent to the broker, it describes the subscription
+ * when passed to VortexNode.subscribe().
+ */
 @Data
 @ToString
 @EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
-public class VortexTopicSubscribePacket implements VortexPacket {
+public class VortexTopicSubscribePacket implements VortexControlPacket {
+
+    /**
+     * Resume durable topic after the offset last acknowledged by the node, or receive only new messages if there is none.
+     */
+    public static final long OFFSET_COMMITTED = 0;
+    /**
+     * Receive only new messages.
+     */
+    public static final long OFFSET_LATEST = -1;
 
     private String topic;
     private boolean unsubscribe;
+    /**
+     * Offset of the first message which should be replayed from durable topic log, or one of OFFSET_* constants.
+     */
+    private long offset = OFFSET_COMMITTED;
+    /**
+     * Name of the group of competing subscribers, each message is delivered to only one member of the group.
+     * Leave empty to receive all messages of the topic.
+     */
+    private String group = "";
+    private GroupPolicy groupPolicy = GroupPolicy.ROUND_ROBIN;
+    /**
+     * Expression evaluated by the broker for each message of the topic, only matching messages are delivered.
+     * Leave empty to receive all messages. Filter of group member is ignored. See TopicFilter for the syntax.
+     */
+    private String filter = "";
+    /**
+     * Receive only the latest message of each conflation key, messages replaced before being written are skipped.
+     * Suitable for state topics on which slow nodes should not receive backlog of stale updates.
+     */
+    private boolean conflate;
 
     @Override
     public void encodePayload(ByteBuf buffer) {
         PacketHelper.writeString(buffer, this.topic);
         buffer.writeBoolean(this.unsubscribe);
+        buffer.writeLong(this.offset);
+        PacketHelper.writeString(buffer, this.group);
+        if (!this.group.isEmpty()) {
+            buffer.writeByte(this.groupPolicy.ordinal());
+        }
+        PacketHelper.writeString(buffer, this.filter);
+        buffer.writeBoolean(this.conflate);
     }
 
     @Override
     public void decodePayload(ByteBuf buffer) {
         this.topic = PacketHelper.readString(buffer);
         this.unsubscribe = buffer.readBoolean();
+        this.offset = buffer.readLong();
+        this.group = PacketHelper.readString(buffer);
+        if (!this.group.isEmpty()) {
+            this.groupPolicy = GroupPolicy.values()[buffer.readUnsignedByte()];
+        }
+        this.filter = PacketHelper.readString(buffer);
+        this.conflate = buffer.readBoolean();
     }
 
     @Override
@@ -36,6 +36,10 @@ public class VortexClientHandshakePacket extends StarGatePacket {
     private String primaryMasterNode = "";
     private List<String> masterNodes = new ObjectArrayList<>();
     private List<String> topics = new ObjectArrayList<>();
+    /**
+     * Written last, so nodes which do not know it can still read the rest of the handshake.
+     */
+    private int protocolVersion = VortexPacketPool.VORTEX_PROTOCOL_VERSION;
 
     @Override
     public void encodePayload(ByteBuf buffer) {
@@ -43,6 +47,7 @@ public class VortexClientHandshakePacket extends StarGatePacket {
         PacketHelper.writeString(buffer, this.primaryMasterNode);
         PacketHelper.writeArray(buffer, this.masterNodes, PacketHelper::writeString);
         PacketHelper.writeArray(buffer, this.topics, PacketHelper::writeString);
+        PacketHelper.writeInt(buffer, this.protocolVersion);
     }
 
     @Override
@@ -51,6 +56,7 @@ public class VortexClientHandshakePacket extends StarGatePacket {
         this.primaryMasterNode = PacketHelper.readString(buffer);
         PacketHelper.readArray(buffer, this.masterNodes, PacketHelper::readString);
         PacketHelper.readArray(buffer, this.topics, PacketHelper::readString);
+        this.protocolVersion = buffer.isReadable() ? PacketHelper.readInt(buffer) : 1;
     }
 
     @Override
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.common.protocol.stargate;
+
+import alemiz.stargate.handler.StarGatePacketHandler;
+import alemiz.stargate.protocol.StarGatePacket;
+import alemiz.stargate.protocol.types.PacketHelper;
+import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import io.netty.buffer.ByteBuf;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Distributes trained Zstd dictionary to the other side of the connection.
+ * Dictionary can be used for all frames sent after this packet.
+ */
+@Data
+@ToString(exclude = {"dictionary"})
+@EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
+public class VortexDictionaryPacket extends StarGatePacket {
+
+    private int dictionaryId;
+    private short vortexPacketId;
+    private byte[] dictionary;
+
+    @Override
+    public void encodePayload(ByteBuf buffer) {
+        PacketHelper.writeInt(buffer, this.dictionaryId);
+        buffer.writeShort(this.vortexPacketId);
+        PacketHelper.writeInt(buffer, this.dictionary.length);
+        buffer.writeBytes(this.dictionary);
+    }
+
+    @Override
+    public void decodePayload(ByteBuf buffer) {
+        this.dictionaryId = PacketHelper.readInt(buffer);
+        this.vortexPacketId = buffer.readShort();
+        this.dictionary = new byte[PacketHelper.readInt(buffer)];
+        buffer.readBytes(this.dictionary);
+    }
+
+    @Override
+    public boolean handle(StarGatePacketHandler handler) {
+        // We should handle this packet from pipeline
+        return false;
+    }
+
+    @Override
+    public byte getPacketId() {
+        return VortexPacketPool.VORTEX_DICTIONARY_PACKET;
+    }
+}
@@ -26,25 +26,150 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Data
 @ToString
 @EqualsAndHashCode(doNotUseGetters = true, callSuper = false)
 public class VortexGatePacket extends StarGatePacket implements ReferenceCounted {
 
+    public static final int COMPRESSION_MASK = 0x0f;
+    public static final int FLAG_MESSAGE_HEADER = 0x80;
+    public static final int FLAG_DICTIONARY = 0x40;
+    public static final int FLAG_TIMESTAMP = 0x20;
+    public static final int FLAG_TOPIC_OFFSET = 0x10;
+
+    /**
+     * Flags of the message header, frame flags are already used up.
+     */
+    public static final int HEADER_FLAG_RETAIN = 0x01;
+    public static final int HEADER_FLAG_ROUTING_KEY = 0x02;
+    public static final int HEADER_FLAG_ATTRIBUTES = 0x04;
+    public static final int HEADER_FLAG_CONFLATION_KEY = 0x08;
+
     private short vortexPacketId;
     private ByteBuf payload;
 
     private CompressionEnum compression;
     private long uncompressedSize;
+    /**
+     * ID of the Zstd dictionary used to compress the payload or 0 if no dictionary was used.
+     */
+    private int dictionaryId;
+
+    /**
+     * Message packets carry routing information in uncompressed header,
+     * so it can be accessed without decompressing and decoding the payload.
+     */
+    private boolean messageHeader;
+    private String targetNode;
+    private String topic;
+    private String senderNode;
+    /**
+     * Key under which the broker retains the message for later subscribers of the topic.
+     * Null if the message is not retained, empty string to retain single message per topic.
+     */
+    private String retainKey;
+    /**
+     * Key used to select consistent member of subscription group, null if not set.
+     */
+    private String routingKey;
+    /**
+     * Indexed message attributes used by subscription filters, null if there are none.
+     */
+    private Map<String, String> attributes;
+    /**
+     * Key under which conflating subscribers replace not yet written message of the same topic, null if not set.
+     */
+    private String conflationKey;
+    /**
+     * Offset of the message in durable topic log or 0.
+     */
+    private long topicOffset;
+
+    /**
+     * Heartbeat timestamps piggybacked on the frame, in microseconds.
+     * Those are specific to single connection, so they are not copied to duplicates.
+     */
+    private long timestamp;
+    private long echoTimestamp;
+    private long echoDelay;
 
     @Override
     public void encodePayload(ByteBuf buffer) {
         buffer.writeShort(this.vortexPacketId);
-        buffer.writeByte(this.compression.ordinal());
+
+        int flags = this.compression.ordinal();
+        if (this.messageHeader) {
+            flags |= FLAG_MESSAGE_HEADER;
+        }
+        if (this.dictionaryId != 0) {
+            flags |= FLAG_DICTIONARY;
+        }
+        if (this.timestamp != 0) {
+            flags |= FLAG_TIMESTAMP;
+        }
+        if (this.topicOffset != 0) {
+            flags |= FLAG_TOPIC_OFFSET;
+        }
+        buffer.writeByte(flags);
+
         if (this.compression != CompressionEnum.NO_COMPRESS) {
             PacketHelper.writeLong(buffer, this.uncompressedSize);
         }
 
+        if (this.dictionaryId != 0) {
+            PacketHelper.writeInt(buffer, this.dictionaryId);
+        }
+
+        if (this.timestamp != 0) {
+            PacketHelper.writeLong(buffer, this.timestamp);
+            PacketHelper.writeLong(buffer, this.echoTimestamp);
+            PacketHelper.writeLong(buffer, this.echoDelay);
+        }
+
+        if (this.messageHeader) {
+            PacketHelper.writeString(buffer, this.targetNode);
+            PacketHelper.writeString(buffer, this.topic);
+            PacketHelper.writeString(buffer, this.senderNode);
+            int headerFlags = 0;
+            if (this.retainKey != null) {
+                headerFlags |= HEADER_FLAG_RETAIN;
+            }
+            if (this.routingKey != null) {
+                headerFlags |= HEADER_FLAG_ROUTING_KEY;
+            }
+            if (this.attributes != null && !this.attributes.isEmpty()) {
+                headerFlags |= HEADER_FLAG_ATTRIBUTES;
+            }
+            if (this.conflationKey != null) {
+                headerFlags |= HEADER_FLAG_CONFLATION_KEY;
+            }
+            buffer.writeByte(headerFlags);
+
+            if (this.retainKey != null) {
+                PacketHelper.writeString(buffer, this.retainKey);
+            }
+            if (this.routingKey != null) {
+                PacketHelper.writeString(buffer, this.routingKey);
+            }
+            if ((headerFlags & HEADER_FLAG_ATTRIBUTES) != 0) {
+                PacketHelper.writeInt(buffer, this.attributes.size());
+                for (Map.Entry<String, String> entry : this.attributes.entrySet()) {
+                    PacketHelper.writeString(buffer, entry.getKey());
+                    PacketHelper.writeString(buffer, entry.getValue());
+                }
+            }
+            if (this.conflationKey != null) {
+                PacketHelper.writeString(buffer, this.conflationKey);
+            }
+        }
+
+        if (this.topicOffset != 0) {
+            PacketHelper.writeLong(buffer, this.topicOffset);
+        }
+
         PacketHelper.writeInt(buffer, this.payload.readableBytes());
         buffer.writeBytes(this.payload);
     }
@@ -52,11 +177,52 @@ public class VortexGatePacket extends StarGatePacket implements ReferenceCounted
     @Override
     public void decodePayload(ByteBuf buffer) {
         this.vortexPacketId = buffer.readShort();
-        this.compression = CompressionEnum.values()[buffer.readByte()];
+
+        int flags = buffer.readUnsignedByte();
+        this.compression = CompressionEnum.values()[flags & COMPRESSION_MASK];
+        this.messageHeader = (flags & FLAG_MESSAGE_HEADER) != 0;
+
         if (this.compression != CompressionEnum.NO_COMPRESS) {
             this.uncompressedSize = PacketHelper.readLong(buffer);
         }
 
+        if ((flags & FLAG_DICTIONARY) != 0) {
+            this.dictionaryId = PacketHelper.readInt(buffer);
+        }
+
+        if ((flags & FLAG_TIMESTAMP) != 0) {
+            this.timestamp = PacketHelper.readLong(buffer);
+            this.echoTimestamp = PacketHelper.readLong(buffer);
+            this.echoDelay = PacketHelper.readLong(buffer);
+        }
+
+        if (this.messageHeader) {
+            this.targetNode = PacketHelper.readString(buffer);
+            this.topic = PacketHelper.readString(buffer);
+            this.senderNode = PacketHelper.readString(buffer);
+            int headerFlags = buffer.readUnsignedByte();
+            if ((headerFlags & HEADER_FLAG_RETAIN) != 0) {
+                this.retainKey = PacketHelper.readString(buffer);
+            }
+            if ((headerFlags & HEADER_FLAG_ROUTING_KEY) != 0) {
+                this.routingKey = PacketHelper.readString(buffer);
+            }
+            if ((headerFlags & HEADER_FLAG_ATTRIBUTES) != 0) {
+                int count = PacketHelper.readInt(buffer);
+                this.attributes = new HashMap<>(count * 2);
+                for (int i = 0; i < count; i++) {
+                    this.attributes.put(PacketHelper.readString(buffer), PacketHelper.readString(buffer));
+                }
+            }
+            if ((headerFlags & HEADER_FLAG_CONFLATION_KEY) != 0) {
+                this.conflationKey = PacketHelper.readString(buffer);
+            }
+        }
+
+        if ((flags & FLAG_TOPIC_OFFSET) != 0) {
+            this.topicOffset = PacketHelper.readLong(buffer);
+        }
+
         int size = PacketHelper.readInt(buffer);
         this.payload = buffer.readRetainedSlice(size);
     }
@@ -72,6 +238,30 @@ public class VortexGatePacket extends StarGatePacket implements ReferenceCounted
         return VortexPacketPool.VORTEX_GATE_PACKET;
     }
 
+    /**
+     * Creates new VortexGatePacket sharing the same payload content with independent reader and writer indexes.
+     * Reference count of the payload is increased, so the duplicate must be released separately.
+     * @return retained duplicate of this packet
+     */
+    public VortexGatePacket retainedDuplicate() {
+        VortexGatePacket packet = new VortexGatePacket();
+        packet.setVortexPacketId(this.vortexPacketId);
+        packet.setCompression(this.compression);
+        packet.setUncompressedSize(this.uncompressedSize);
+        packet.setDictionaryId(this.dictionaryId);
+        packet.setMessageHeader(this.messageHeader);
+        packet.setTargetNode(this.targetNode);
+        packet.setTopic(this.topic);
+        packet.setSenderNode(this.senderNode);
+        packet.setRetainKey(this.retainKey);
+        packet.setRoutingKey(this.routingKey);
+        packet.setAttributes(this.attributes);
+        packet.setConflationKey(this.conflationKey);
+        packet.setTopicOffset(this.topicOffset);
+        packet.setPayload(this.payload.retainedDuplicate());
+        return packet;
+    }
+
     @Override
     public int refCnt() {
         if (this.payload == null) {
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package alemiz.stargate.vortex.common.filter;
+
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import io.netty.buffer.ByteBuf;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopicFilterParserTest {
+
+    @Test
+    public void testComparisons() {
+        TestMessagePacket packet = packet(1, "region", "eu");
+        assertTrue(TopicFilter.parse("region == 'eu'").test(packet));
+        assertTrue(TopicFilter.parse("region == \"eu\"").test(packet));
+        assertFalse(TopicFilter.parse("region != 'eu'").test(packet));
+        assertTrue(TopicFilter.parse("region in ('us', 'eu')").test(packet));
+        assertFalse(TopicFilter.parse("region in ('us')").test(packet));
+        assertTrue(TopicFilter.parse("exists(region)").test(packet));
+        assertFalse(TopicFilter.parse("exists(type)").test(packet));
+    }
+
+    @Test
+    public void testMissingAttributeNeverEquals() {
+        TestMessagePacket packet = packet(1);
+        assertFalse(TopicFilter.parse("region == 'eu'").test(packet));
+        assertTrue(TopicFilter.parse("region != 'eu'").test(packet));
+        assertFalse(TopicFilter.parse("region in ('eu')").test(packet));
+    }
+
+    @Test
+    public void testHeaderFields() {
+        TestMessagePacket packet = packet(1);
+        packet.setTopic("lobby.eu");
+        packet.setSenderNode("lobby-1");
+        packet.setRoutingKey("player");
+        assertTrue(TopicFilter.parse("$topic == 'lobby.eu' && $sender == 'lobby-1' && $routingKey == player").test(packet));
+        assertTrue(TopicFilter.parse("$target == ''").test(packet));
+    }
+
+    @Test
+    public void testPacketIdComparedAsNumber() {
+        TestMessagePacket packet = packet(5);
+        assertTrue(TopicFilter.parse("$packetId == 5").test(packet));
+        assertTrue(TopicFilter.parse("$packetId == '05'").test(packet));
+        assertTrue(TopicFilter.parse("$packetId != 6").test(packet));
+        assertTrue(TopicFilter.parse("$packetId in (1, 005)").test(packet));
+        assertFalse(TopicFilter.parse("$packetId in (1, 2)").test(packet));
+        assertTrue(TopicFilter.parse("exists($packetId)").test(packet));
+    }
+
+    @Test
+    public void testPrecedence() {
+        // Parsed as ((!(a == 1)) && b in (...)) || c == 'z'
+        TopicFilter filter = TopicFilter.parse("!a == 1 && b in ('x', 'y') || c == 'z'");
+        assertTrue(filter.test(packet(1, "a", "2", "b", "x")));
+        assertFalse(filter.test(packet(1, "a", "1", "b", "x")));
+        assertFalse(filter.test(packet(1, "a", "2", "b", "w")));
+        // "||" binds weaker than "&&"
+        assertTrue(filter.test(packet(1, "a", "1", "b", "x", "c", "z")));
+        // "!" applies only to the comparison which follows it
+        assertFalse(filter.test(packet(1, "a", "1", "b", "w")));
+    }
+
+    @Test
+    public void testParentheses() {
+        TopicFilter filter = TopicFilter.parse("!(a == 1 && b == 2) && (c == 3 || c == 4)");
+        assertTrue(filter.test(packet(1, "a", "1", "b", "1", "c", "4")));
+        assertFalse(filter.test(packet(1, "a", "1", "b", "2", "c", "4")));
+        assertFalse(filter.test(packet(1, "a", "1", "b", "1", "c", "5")));
+    }
+
+    @Test
+    public void testParseErrors() {
+        assertInvalid("");
+        assertInvalid("region");
+        assertInvalid("region ==");
+        assertInvalid("region == 'eu");
+        assertInvalid("region == 'eu' &&");
+        assertInvalid("region = 'eu'");
+        assertInvalid("(region == 'eu'");
+        assertInvalid("region == 'eu')");
+        assertInvalid("region in 'eu'");
+        assertInvalid("region in ('eu',)");
+        assertInvalid("exists(region");
+        assertInvalid("$unknown == 'eu'");
+        assertInvalid("$packetId == abc");
+        assertInvalid("$packetId == 70000");
+    }
+
+    @Test
+    public void testLengthLimit() {
+        StringBuilder builder = new StringBuilder("a == '");
+        while (builder.length() < TopicFilterParser.MAX_LENGTH) {
+            builder.append('x');
+        }
+        builder.append('\'');
+        assertInvalid(builder.toString());
+    }
+
+    @Test
+    public void testDepthLimit() {
+        assertNotNull(TopicFilter.parse(nested("(", TopicFilterParser.MAX_DEPTH, ")")));
+        assertInvalid(nested("(", TopicFilterParser.MAX_DEPTH + 1, ")"));
+
+        assertNotNull(TopicFilter.parse(nested("!", TopicFilterParser.MAX_DEPTH, "")));
+        assertInvalid(nested("!", TopicFilterParser.MAX_DEPTH + 1, ""));
+    }
+
+    private static String nested(String open, int depth, String close) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            builder.append(open);
+        }
+        builder.append("a == 1");
+        for (int i = 0; i < depth; i++) {
+            builder.append(close);
+        }
+        return builder.toString();
+    }
+
+    private static void assertInvalid(String expression) {
+        assertThrows(IllegalArgumentException.class, () -> TopicFilter.parse(expression), expression);
+    }
+
+    private static TestMessagePacket packet(int packetId, String... attributes) {
+        TestMessagePacket packet = new TestMessagePacket((short) packetId);
+        for (int i = 0; i < attributes.length; i += 2) {
+            packet.setAttribute(attributes[i], attributes[i + 1]);
+        }
+        return packet;
+    }
+
+    private static class TestMessagePacket extends VortexMessagePacket {
+        private final short packetId;
+
+        private TestMessagePacket(short packetId) {
+            this.packetId = packetId;
+        }
+
+        @Override
+        public void encode(ByteBuf buffer) {
+        }
+
+        @Override
+        public void decode(ByteBuf buffer) {
+        }
+
+        @Override
+        public short getPacketId() {
+            return this.packetId;
+        }
+    }
+}
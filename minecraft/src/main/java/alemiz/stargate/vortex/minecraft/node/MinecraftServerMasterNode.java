@@ -41,7 +41,7 @@ public class MinecraftServerMasterNode extends VortexMasterNode {
 
         VortexNode node = this.getChildNode(packet.getTargetNode());
         if (node == null || node.isClosed()) {
-            return false;
+            return this.getVortexParent().storePendingMessage(this, packet);
         }
         node.sendPacket(packet);
         return true;
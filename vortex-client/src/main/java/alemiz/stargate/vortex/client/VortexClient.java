@@ -26,14 +26,21 @@ import alemiz.stargate.vortex.client.node.VortexClientMasterNode;
 import alemiz.stargate.vortex.client.node.VortexClientNode;
 import alemiz.stargate.vortex.client.stargate.StarGateListener;
 import alemiz.stargate.vortex.common.StarGateLoggerAppender;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.metrics.MetricsExporter;
+import alemiz.stargate.vortex.common.metrics.VortexMetrics;
 import alemiz.stargate.vortex.common.node.VortexNode;
 import alemiz.stargate.vortex.common.node.VortexNodeListener;
 import alemiz.stargate.vortex.common.node.VortexNodeOwner;
 import alemiz.stargate.vortex.common.node.VortexNodeType;
 import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexBatchPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexDictionaryPacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexClientHandshakePacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
 import io.netty.channel.ChannelFuture;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
@@ -49,6 +56,9 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
 
     private VortexNode vortexNode;
     private VortexPacketPool packetPool = new VortexPacketPool();
+    private final CompressionPolicy compressionPolicy = new CompressionPolicy(this);
+    private final VortexMetrics metrics = new VortexMetrics();
+    private final MetricsExporter metricsExporter = new MetricsExporter(this.metrics);
     private VortexListener listener;
 
     public VortexClient(VortexClientSettings settings) {
@@ -62,6 +72,7 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
     }
 
     public ChannelFuture start() {
+        this.startMetricsExporter();
         return this.client.connect();
     }
 
@@ -70,11 +81,26 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
             throw new IllegalStateException("Client is not connected");
         }
         this.client.shutdown();
+        this.metricsExporter.stop();
+    }
+
+    private void startMetricsExporter() {
+        if (this.settings.getMetricsPort() <= 0) {
+            return;
+        }
+
+        try {
+            this.metricsExporter.start(this.settings.getMetricsPort());
+        } catch (Exception e) {
+            log.error("Unable to start Vortex metrics exporter", e);
+        }
     }
 
     private void registerStarGateCodec(ProtocolCodec codec) {
         codec.registerPacket(VortexPacketPool.VORTEX_GATE_PACKET, VortexGatePacket.class);
         codec.registerPacket(VortexPacketPool.VORTEX_CLIENT_HANDSHAKE_PACKET, VortexClientHandshakePacket.class);
+        codec.registerPacket(VortexPacketPool.VORTEX_BATCH_PACKET, VortexBatchPacket.class);
+        codec.registerPacket(VortexPacketPool.VORTEX_DICTIONARY_PACKET, VortexDictionaryPacket.class);
     }
 
     public void onNodeCreated(VortexNode vortexNode, ClientSession session) {
@@ -83,6 +109,8 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
         }
         log.info("Vortex node was successfully created");
 
+        // Restarted broker allocates dictionary IDs again, so it sends all its dictionaries to the new session
+        this.compressionPolicy.clearDictionaries();
         vortexNode.initialize(session.getChannel());
         this.vortexNode = vortexNode;
 
@@ -128,6 +156,16 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
         this.packetPool = packetPool;
     }
 
+    @Override
+    public CompressionPolicy getCompressionPolicy() {
+        return this.compressionPolicy;
+    }
+
+    @Override
+    public VortexMetrics getMetrics() {
+        return this.metrics;
+    }
+
     public boolean isClosed() {
         return !this.client.isConnected();
     }
@@ -136,6 +174,26 @@ public class VortexClient implements ServerLoader, VortexNodeOwner {
         return this.vortexNode != null && !this.vortexNode.isClosed();
     }
 
+    /**
+     * @return if the node is connected and the broker granted it credits to send packets
+     */
+    public boolean canSend() {
+        VortexNode node = this.vortexNode;
+        return node != null && node.canSend();
+    }
+
+    /**
+     * Producers can wait for this future before sending more packets, so they do not outrun the broker.
+     * @return future which is completed once the node can send packets, failed if the node is not connected or disconnects
+     */
+    public Future<Void> awaitCanSend() {
+        VortexNode node = this.vortexNode;
+        if (node == null || node.isClosed()) {
+            return GlobalEventExecutor.INSTANCE.newFailedFuture(new IllegalStateException("Vortex node is not connected"));
+        }
+        return node.awaitCanSend();
+    }
+
     @Override
     public StarGateLogger getStarGateLogger() {
         return this.logger;
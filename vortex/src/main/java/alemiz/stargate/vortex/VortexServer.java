@@ -21,22 +21,43 @@ import alemiz.stargate.server.StarGateServer;
 import alemiz.stargate.utils.ServerLoader;
 import alemiz.stargate.utils.StarGateLogger;
 import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.filter.TopicFilter;
 import alemiz.stargate.vortex.common.node.VortexNodeListener;
 import alemiz.stargate.vortex.common.node.VortexServerNodeOwner;
 import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexTopicSubscribePacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexBatchPacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexClientHandshakePacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexDictionaryPacket;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
 import alemiz.stargate.vortex.common.node.VortexNode;
 import alemiz.stargate.vortex.common.node.VortexNodeType;
 import alemiz.stargate.vortex.common.StarGateLoggerAppender;
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
+import alemiz.stargate.vortex.common.metrics.MetricsExporter;
+import alemiz.stargate.vortex.common.metrics.TopicMetrics;
+import alemiz.stargate.vortex.common.metrics.VortexMetrics;
+import alemiz.stargate.vortex.common.pipeline.MessageConflationKey;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
 import alemiz.stargate.vortex.node.VortexDefaultMasterNode;
 import alemiz.stargate.vortex.node.VortexDefaultNode;
+import alemiz.stargate.vortex.pending.PendingMessageStore;
 import alemiz.stargate.vortex.stargate.StarGateListener;
+import alemiz.stargate.vortex.topic.RetainedMessageStore;
+import alemiz.stargate.vortex.topic.TopicLog;
+import alemiz.stargate.vortex.topic.TopicGroup;
+import alemiz.stargate.vortex.topic.TopicLogManager;
+import alemiz.stargate.vortex.topic.TopicRoute;
+import alemiz.stargate.vortex.topic.TopicTree;
 import lombok.extern.log4j.Log4j2;
 
 import java.net.InetSocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,22 +74,40 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
     private final StarGateServer server;
 
     private final Map<InetSocketAddress, VortexNode> vortexNodes = new ConcurrentHashMap<>();
-    private final Map<String, Set<VortexNode>> topics = new ConcurrentHashMap<>();
+    private final Map<String, VortexNode> vortexNodesByName = new ConcurrentHashMap<>();
+    private final TopicTree topics = new TopicTree();
     private VortexPacketPool packetPool = new VortexPacketPool();
+    private final CompressionPolicy compressionPolicy = new CompressionPolicy(this);
+    private final VortexMetrics metrics = new VortexMetrics();
+    private final MetricsExporter metricsExporter = new MetricsExporter(this.metrics);
+    private final TopicLogManager topicLogManager;
+    private final PendingMessageStore pendingMessages;
+    private final RetainedMessageStore retainedMessages;
     private VortexListener listener;
 
     public VortexServer(VortexSettings settings) {
         this.settings = settings;
+        this.topicLogManager = new TopicLogManager(settings, this.compressionPolicy);
+        this.pendingMessages = new PendingMessageStore(this.compressionPolicy, settings.getPendingMessageTtl(),
+                settings.getPendingMessagesPerNode(), settings.getPendingMessageBudget());
+        this.retainedMessages = new RetainedMessageStore(settings.getRetainedMessageBudget(), settings.getRetainedMessagesPerTopic());
 
         InetSocketAddress address = new InetSocketAddress("0.0.0.0", settings.getPort());
         this.server = new StarGateServer(address, settings.getPassword(), this);
         this.server.setServerListener(new StarGateListener(this, this.server));
         this.registerStarGateCodec(this.server.getProtocolCodec());
+
+        if (settings.isDictionaryTraining()) {
+            this.compressionPolicy.enableDictionaryTraining(this::onDictionaryTrained);
+        }
     }
 
     public void start() {
         log.info("Starting Vortex server powered by StarGate protocol");
+        this.topicLogManager.start();
+        this.pendingMessages.start();
         this.server.start();
+        this.startMetricsExporter();
     }
 
     public void shutdown() {
@@ -76,11 +115,37 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
             throw new IllegalStateException("Server is already shutdown");
         }
         this.server.shutdown();
+        this.metricsExporter.stop();
+        this.topicLogManager.close();
+        this.pendingMessages.close();
+        this.retainedMessages.close();
+        this.compressionPolicy.close();
+    }
+
+    private void startMetricsExporter() {
+        if (this.settings.getMetricsPort() <= 0) {
+            return;
+        }
+
+        try {
+            this.metricsExporter.start(this.settings.getMetricsPort());
+        } catch (Exception e) {
+            log.error("Unable to start Vortex metrics exporter", e);
+        }
     }
 
     private void registerStarGateCodec(ProtocolCodec codec) {
         codec.registerPacket(VortexPacketPool.VORTEX_GATE_PACKET, VortexGatePacket.class);
         codec.registerPacket(VortexPacketPool.VORTEX_CLIENT_HANDSHAKE_PACKET, VortexClientHandshakePacket.class);
+        codec.registerPacket(VortexPacketPool.VORTEX_BATCH_PACKET, VortexBatchPacket.class);
+        codec.registerPacket(VortexPacketPool.VORTEX_DICTIONARY_PACKET, VortexDictionaryPacket.class);
+    }
+
+    private void onDictionaryTrained(VortexDictionary dictionary) {
+        log.info("Trained compression dictionary " + dictionary.getDictionaryId() + " for Vortex packet " + dictionary.getPacketId());
+        for (VortexNode node : this.vortexNodes.values()) {
+            node.sendDictionary(dictionary);
+        }
     }
 
     public VortexNode createNewNode(String typeName, Collection<String> topics, ServerSession session) {
@@ -90,16 +155,31 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
 
         VortexNode oldNode = this.vortexNodes.remove(session.getAddress());
         if (oldNode != null) {
+            this.vortexNodesByName.remove(oldNode.getNodeName(), oldNode);
             oldNode.disconnect("Connected from another location!");
         }
 
         log.info("New Vortex node successfully created " + session.getAddress());
 
         for (String topic : topics) {
-            node.subscribe(topic);
+            try {
+                node.subscribe(topic);
+            } catch (IllegalArgumentException e) {
+                log.warn("Node " + node.getNodeName() + " requested invalid topic " + topic + ": " + e.getMessage());
+            }
         }
 
         this.vortexNodes.put(session.getAddress(), node);
+        this.vortexNodesByName.put(node.getNodeName(), node);
+
+        for (VortexDictionary dictionary : this.compressionPolicy.getPacketDictionaries()) {
+            node.sendDictionary(dictionary);
+        }
+
+        int pendingCount = this.pendingMessages.drain(node);
+        if (pendingCount > 0) {
+            log.info("Delivered " + pendingCount + " pending messages to node " + node.getNodeName());
+        }
         if (this.listener != null) {
             this.listener.onNodeCreated(session.getAddress(), node);
         }
@@ -111,6 +191,8 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
         if (vortexNode == null) {
             return;
         }
+        // Node with the same name might have already replaced this one
+        this.vortexNodesByName.remove(vortexNode.getNodeName(), vortexNode);
 
         for (String topic : vortexNode.getSubscribedTopics()) {
             vortexNode.unsubscribe(topic);
@@ -129,35 +211,195 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
 
     @Override
     public VortexNode getVortexNode(String name) {
-        for (VortexNode vortexNode : this.vortexNodes.values()) {
-            if (vortexNode.getNodeName().equals(name)) {
-                return vortexNode;
-            }
-        }
-        return null;
+        return this.vortexNodesByName.get(name);
     }
 
     @Override
     public Collection<VortexNode> getVortexNodes(String topic) {
-        Set<VortexNode> nodes = this.topics.get(topic.trim());
-        if (nodes.isEmpty()) {
-            return null;
+        TopicRoute route = this.topics.match(topic.trim());
+        if (route.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (route.getGroups().length == 0) {
+            return Collections.unmodifiableList(Arrays.asList(route.getNodes()));
+        }
+
+        Set<VortexNode> nodes = new LinkedHashSet<>(Arrays.asList(route.getNodes()));
+        for (TopicGroup group : route.getGroups()) {
+            nodes.addAll(Arrays.asList(group.getMembers()));
         }
         return Collections.unmodifiableCollection(nodes);
     }
 
     @Override
-    public void onNodeSubscribe(VortexNode node, String topic) {
-        this.topics.computeIfAbsent(topic.trim(), key -> Collections.newSetFromMap(new ConcurrentHashMap<>())).add(node);
-        log.info("Node " + node.getNodeName() + " subscribed to topic " + topic);
+    public boolean publishTopicMessage(VortexNode sender, VortexMessagePacket packet) {
+        String topicName = packet.getTopic().trim();
+        if (!topicName.equals(packet.getTopic())) {
+            // Frames are logged and retained under the topic from their header
+            packet.setTopic(topicName);
+        }
+
+        TopicRoute route = this.topics.match(topicName);
+        VortexNode[] nodes = route.selectTargets(sender, packet);
+        TopicMetrics metrics = this.metrics.getTopicMetrics(topicName);
+        TopicLog topicLog = this.topicLogManager.getLog(topicName);
+        boolean retained = packet.getRetainKey() != null && this.retainedMessages.isEnabled();
+        // Durable topics deliver every logged message, so they are never conflated
+        Object conflationKey = topicLog == null && route.hasConflatingNodes() ? MessageConflationKey.of(packet) : null;
+
+        if (topicLog == null && !retained && conflationKey == null) {
+            int delivered = sender.sendPacket(packet, nodes);
+            if (metrics != null) {
+                metrics.recordDelivered(delivered);
+            }
+            return !route.isEmpty();
+        }
+
+        VortexGatePacket frame = topicLog == null ? this.encodeFrame(sender, packet) : this.topicLogManager.encodeFrame(sender, packet);
+        int delivered;
+        try {
+            if (retained) {
+                // Subscribers receive retained frames under the same lock, so none of them gets older frame after newer one
+                this.retainedMessages.lock(topicName);
+                try {
+                    // Node might have subscribed before the lock was acquired
+                    TopicRoute current = this.topics.match(topicName);
+                    VortexNode[] targets = current == route ? nodes : current.selectTargets(sender, packet);
+                    delivered = this.publishFrame(sender, frame, targets, current, conflationKey, topicLog);
+                    this.retainedMessages.retain(frame);
+                } finally {
+                    this.retainedMessages.unlock(topicName);
+                }
+            } else {
+                delivered = this.publishFrame(sender, frame, nodes, route, conflationKey, topicLog);
+            }
+        } finally {
+            frame.release();
+        }
+
+        if (metrics != null) {
+            metrics.recordDelivered(delivered);
+            if (topicLog != null && frame.getTopicOffset() == 0) {
+                // Message was delivered live, but it can not be replayed
+                metrics.recordLogFailure();
+            }
+        }
+        return true;
+    }
+
+    private VortexGatePacket encodeFrame(VortexNode sender, VortexMessagePacket packet) {
+        if (packet.getSenderNode() == null) {
+            packet.setSenderNode(sender.getNodeName());
+        }
+        // Encoder of each recipient sends the dictionary first if it was not sent to it yet
+        return VortexPacketEncoder.encodePacket(sender.getSession().getChannel().alloc(), packet, this.compressionPolicy, dictionaryId -> true);
+    }
+
+    private int publishFrame(VortexNode sender, VortexGatePacket frame, VortexNode[] nodes, TopicRoute route, Object conflationKey, TopicLog topicLog) {
+        if (topicLog != null) {
+            return topicLog.publish(sender, frame, nodes, sender.getSession().getChannel().alloc());
+        }
+
+        int delivered = 0;
+        for (VortexNode node : nodes) {
+            if (node == sender) {
+                continue;
+            }
+
+            if (conflationKey != null && route.isConflating(node)) {
+                // Replaces older frame of the same key which is still waiting in the outbound queue of the node
+                node.sendGatePacket(frame.retainedDuplicate(), conflationKey);
+            } else {
+                node.sendGatePacket(frame.retainedDuplicate());
+            }
+            delivered++;
+        }
+        return delivered;
+    }
+
+    @Override
+    public boolean storePendingMessage(VortexNode sender, VortexMessagePacket packet) {
+        // Node is connected but not registered to the sender yet, message would never be drained
+        VortexNode target = this.vortexNodesByName.get(packet.getTargetNode());
+        if (target != null && !target.isClosed()) {
+            return false;
+        }
+        if (!this.pendingMessages.store(sender, packet)) {
+            return false;
+        }
+
+        // Target might have registered and drained its queue before the message was stored.
+        // Nodes are registered before draining, so the message is drained here or by createNewNode()
+        target = this.vortexNodesByName.get(packet.getTargetNode());
+        if (target != null && !target.isClosed()) {
+            this.pendingMessages.drain(target);
+        }
+        return true;
+    }
+
+    @Override
+    public void onNodeSubscribe(VortexNode node, VortexTopicSubscribePacket subscription) {
+        String topicName = subscription.getTopic().trim();
+        if (!subscription.getGroup().isEmpty()) {
+            // Group members share the work, they are not synchronized with retained or logged messages
+            this.topics.subscribe(topicName, node, subscription.getGroup(), subscription.getGroupPolicy(), null, false);
+            log.info("Node " + node.getNodeName() + " subscribed to topic " + topicName + " in group " + subscription.getGroup());
+            return;
+        }
+
+        // Filter is validated by VortexNode.subscribe() before the topic is recorded
+        TopicFilter filter = subscription.getFilter().isEmpty() ? null : TopicFilter.parse(subscription.getFilter());
+        if (this.topics.isSubscribed(topicName, node)) {
+            // Only options of the subscription changed, messages already received are not replayed again
+            this.topics.subscribe(topicName, node, null, null, filter, subscription.isConflate());
+            log.info("Node " + node.getNodeName() + " updated subscription of topic " + topicName);
+            return;
+        }
+
+        // Replay must be registered before the node starts receiving live messages of durable topic
+        TopicLog topicLog = this.topicLogManager.getLog(topicName);
+        boolean replaying = topicLog != null && topicLog.subscribe(node, subscription.getOffset(), filter);
+
+        this.retainedMessages.lock(topicName);
+        try {
+            this.topics.subscribe(topicName, node, null, null, filter, subscription.isConflate());
+            if (!replaying) {
+                this.retainedMessages.deliver(node, topicName, filter);
+            }
+        } finally {
+            this.retainedMessages.unlock(topicName);
+        }
+        log.info("Node " + node.getNodeName() + " subscribed to topic " + topicName);
+    }
+
+    @Override
+    public void onTopicAcknowledge(VortexNode node, String topic, long offset) {
+        TopicLog topicLog = this.topicLogManager.getLog(topic.trim());
+        if (topicLog != null) {
+            topicLog.commit(node.getNodeName(), offset);
+        }
     }
 
     @Override
     public void onNodeUnsubscribe(VortexNode node, String topic) {
-        Set<VortexNode> nodes = this.topics.get(topic.trim());
-        if (nodes != null) {
-            nodes.remove(node);
-            log.info("Node " + node.getNodeName() + " unsubscribed from topic " + topic);
+        String topicName = topic.trim();
+        if (this.topics.unsubscribe(topicName, node)) {
+            log.info("Node " + node.getNodeName() + " unsubscribed from topic " + topicName);
+            this.removeTopicMetrics(topicName);
+        }
+        this.topicLogManager.unsubscribe(node, topicName);
+    }
+
+    /**
+     * Removes metrics of topics matched by the pattern which have no subscribers left,
+     * so metrics of short-lived topics do not fill the limit of tracked topics.
+     */
+    private void removeTopicMetrics(String pattern) {
+        for (TopicMetrics metrics : this.metrics.getTopicMetrics()) {
+            String topic = metrics.getTopic();
+            if (TopicTree.matches(pattern, topic) && this.topics.match(topic).isEmpty()) {
+                this.metrics.removeTopicMetrics(topic);
+            }
         }
     }
 
@@ -183,6 +425,16 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
         this.packetPool = packetPool;
     }
 
+    @Override
+    public CompressionPolicy getCompressionPolicy() {
+        return this.compressionPolicy;
+    }
+
+    @Override
+    public VortexMetrics getMetrics() {
+        return this.metrics;
+    }
+
     @Override
     public VortexSettings getSettings() {
         return this.settings;
@@ -193,6 +445,14 @@ public class VortexServer implements ServerLoader, VortexServerNodeOwner {
         return this.logger;
     }
 
+    public RetainedMessageStore getRetainedMessages() {
+        return this.retainedMessages;
+    }
+
+    public PendingMessageStore getPendingMessages() {
+        return this.pendingMessages;
+    }
+
     public boolean isClosed() {
         return this.server.isShutdown();
     }
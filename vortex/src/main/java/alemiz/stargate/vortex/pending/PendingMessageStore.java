@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.pending;
+
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds direct messages for target nodes which are not connected at the moment.
+ * Messages are kept encoded in pooled direct buffers, so they do not occupy heap while waiting,
+ * and are delivered once a node with the target name connects again.
+ * Messages expire after the TTL. Number of messages per target and total payload size are bounded,
+ * when any of the limits is exceeded, the oldest messages of the target are dropped.
+ * Expired messages are swept once per second, so targets which never reconnect do not hold buffers.
+ */
+public class PendingMessageStore {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final CompressionPolicy compressionPolicy;
+    private final long ttlNanos;
+    private final int maxMessagesPerNode;
+    private final long maxBytes;
+
+    private final Map<String, ArrayDeque<PendingMessage>> queues = new HashMap<>();
+    private long queuedBytes;
+    private ScheduledExecutorService executor;
+
+    private long expiredMessages;
+    private long droppedMessages;
+
+    public PendingMessageStore(CompressionPolicy compressionPolicy, long ttlMillis, int maxMessagesPerNode, long maxBytes) {
+        this.compressionPolicy = compressionPolicy;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxMessagesPerNode = maxMessagesPerNode;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return this.ttlNanos > 0 && this.maxMessagesPerNode > 0;
+    }
+
+    public synchronized void start() {
+        if (this.executor != null || !this.isEnabled()) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vortex-pending-messages");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores message for the node which is not connected.
+     * @param sender node which sent the message
+     * @param packet message with the target node set
+     * @return if the message was stored
+     */
+    public boolean store(VortexNode sender, VortexMessagePacket packet) {
+        if (!this.isEnabled() || packet.getTargetNode().isEmpty()) {
+            return false;
+        }
+
+        if (packet.getSenderNode() == null) {
+            packet.setSenderNode(sender.getNodeName());
+        }
+        // Encoder of the target sends the dictionary first, if the frame was compressed with one
+        VortexGatePacket frame = VortexPacketEncoder.encodePacket(sender.getSession().getChannel().alloc(), packet,
+                this.compressionPolicy, dictionaryId -> true);
+        int size = frame.getPayload().readableBytes();
+        if (this.maxBytes > 0 && size > this.maxBytes) {
+            frame.release();
+            return false;
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            ArrayDeque<PendingMessage> queue = this.queues.computeIfAbsent(packet.getTargetNode(), name -> new ArrayDeque<>());
+            this.expire(queue, now);
+            while (queue.size() >= this.maxMessagesPerNode) {
+                this.remove(queue);
+                this.droppedMessages++;
+            }
+
+            queue.addLast(new PendingMessage(frame, now + this.ttlNanos));
+            this.queuedBytes += size;
+
+            // Make room by dropping oldest messages of the same target, others are not affected
+            while (this.maxBytes > 0 && this.queuedBytes > this.maxBytes && !queue.isEmpty()) {
+                this.remove(queue);
+                this.droppedMessages++;
+            }
+            return !queue.isEmpty();
+        }
+    }
+
+    /**
+     * Delivers all messages waiting for the node which has just connected.
+     * @param node connected node
+     * @return number of delivered messages
+     */
+    public int drain(VortexNode node) {
+        ArrayDeque<PendingMessage> queue;
+        synchronized (this) {
+            queue = this.queues.remove(node.getNodeName());
+            if (queue == null) {
+                return 0;
+            }
+            this.expire(queue, System.nanoTime());
+            for (PendingMessage message : queue) {
+                this.queuedBytes -= message.frame.getPayload().readableBytes();
+            }
+        }
+
+        int delivered = queue.size();
+        for (PendingMessage message : queue) {
+            node.sendGatePacket(message.frame);
+        }
+        node.flush();
+        return delivered;
+    }
+
+    /**
+     * Releases expired messages of all targets.
+     */
+    public synchronized void sweep() {
+        long now = System.nanoTime();
+        Iterator<ArrayDeque<PendingMessage>> iterator = this.queues.values().iterator();
+        while (iterator.hasNext()) {
+            ArrayDeque<PendingMessage> queue = iterator.next();
+            this.expire(queue, now);
+            if (queue.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void expire(ArrayDeque<PendingMessage> queue, long now) {
+        PendingMessage message;
+        while ((message = queue.peekFirst()) != null && now - message.deadline >= 0) {
+            this.remove(queue);
+            this.expiredMessages++;
+        }
+    }
+
+    private void remove(ArrayDeque<PendingMessage> queue) {
+        PendingMessage message = queue.pollFirst();
+        this.queuedBytes -= message.frame.getPayload().readableBytes();
+        message.frame.release();
+    }
+
+    /**
+     * Stops the sweeper and releases all stored messages.
+     */
+    public synchronized void close() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+        this.clear();
+    }
+
+    public synchronized void clear() {
+        for (ArrayDeque<PendingMessage> queue : this.queues.values()) {
+            while (!queue.isEmpty()) {
+                this.remove(queue);
+            }
+        }
+        this.queues.clear();
+    }
+
+    public synchronized int getPendingCount() {
+        int count = 0;
+        for (ArrayDeque<PendingMessage> queue : this.queues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    public synchronized long getQueuedBytes() {
+        return this.queuedBytes;
+    }
+
+    public synchronized long getExpiredMessages() {
+        return this.expiredMessages;
+    }
+
+    public synchronized long getDroppedMessages() {
+        return this.droppedMessages;
+    }
+
+    private static class PendingMessage {
+        private final VortexGatePacket frame;
+        private final long deadline;
+
+        private PendingMessage(VortexGatePacket frame, long deadline) {
+            this.frame = frame;
+            this.deadline = deadline;
+        }
+    }
+}
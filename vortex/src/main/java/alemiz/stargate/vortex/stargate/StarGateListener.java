@@ -23,13 +23,16 @@ import alemiz.stargate.vortex.VortexServer;
 import alemiz.stargate.vortex.common.node.VortexNode;
 
 import java.net.InetSocketAddress;
-import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StarGateListener extends StarGateServerListener {
 
     private final VortexServer loader;
     private final StarGateServer server;
 
+    private final Map<String, ServerSession> authenticatedSessions = new ConcurrentHashMap<>();
+
     public StarGateListener(VortexServer loader, StarGateServer server) {
         this.loader = loader;
         this.server = server;
@@ -42,12 +45,9 @@ public class StarGateListener extends StarGateServerListener {
 
     @Override
     public void onSessionAuthenticated(ServerSession session) {
-        Collection<ServerSession> sessions = this.server.getSessions().values();
-        for (ServerSession oldSession : sessions) {
-            if (session.getAddress() != oldSession.getAddress() && oldSession.getHandshakeData() != null &&
-                    oldSession.getClientName().equals(session.getClientName())) {
-                oldSession.disconnect(DisconnectPacket.REASON.ANOTHER_LOCATION_LOGIN);
-            }
+        ServerSession oldSession = this.authenticatedSessions.put(session.getClientName(), session);
+        if (oldSession != null && oldSession != session) {
+            oldSession.disconnect(DisconnectPacket.REASON.ANOTHER_LOCATION_LOGIN);
         }
 
         session.setPacketHandler(new StarGatePacketHandler(session, this.loader));
@@ -55,6 +55,9 @@ public class StarGateListener extends StarGateServerListener {
 
     @Override
     public void onSessionDisconnected(ServerSession session) {
+        if (session.getHandshakeData() != null) {
+            this.authenticatedSessions.remove(session.getClientName(), session);
+        }
         this.loader.onNodeClosed(session);
     }
 }
@@ -18,6 +18,7 @@ package alemiz.stargate.vortex.stargate;
 import alemiz.stargate.server.ServerSession;
 import alemiz.stargate.server.handler.ConnectedHandler;
 import alemiz.stargate.vortex.VortexServer;
+import alemiz.stargate.vortex.common.protocol.VortexPacketPool;
 import alemiz.stargate.vortex.common.protocol.stargate.PacketHandler;
 import alemiz.stargate.vortex.common.protocol.stargate.VortexClientHandshakePacket;
 import alemiz.stargate.vortex.common.node.VortexNode;
@@ -37,6 +38,13 @@ public class StarGatePacketHandler extends ConnectedHandler implements PacketHan
 
     @Override
     public boolean handleVortexClientHandshake(VortexClientHandshakePacket packet) {
+        if (packet.getProtocolVersion() != VortexPacketPool.VORTEX_PROTOCOL_VERSION) {
+            log.warn("Vortex node " + this.session.getAddress() + " uses unsupported protocol version " + packet.getProtocolVersion() +
+                    ", expected " + VortexPacketPool.VORTEX_PROTOCOL_VERSION);
+            this.session.disconnect("Unsupported Vortex protocol version");
+            return true;
+        }
+
         try {
             this.node = this.loader.createNewNode(packet.getVortexType(), packet.getTopics(), this.session);
         } catch (Throwable t) {
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.filter.TopicFilter;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the last encoded frame of each retained topic and key, so it can be delivered to nodes which subscribe later.
+ * Memory is bounded by total payload size and number of keys per topic, least recently updated frames are evicted first.
+ * Frames are kept as retained duplicates of the published frame, so the payload is not copied.
+ * Delivery of retained topics is ordered by striped topic locks, so publishers of different topics do not wait for each other.
+ */
+public class RetainedMessageStore {
+
+    /**
+     * Number of topic locks, must be power of two.
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final long maxBytes;
+    private final int maxMessagesPerTopic;
+
+    private final Map<String, Map<String, RetainedFrame>> topics = new HashMap<>();
+    /**
+     * Frames of all topics ordered by the time of the last update.
+     */
+    private final LinkedHashSet<RetainedFrame> evictionOrder = new LinkedHashSet<>();
+    private long retainedBytes;
+    private long evictedMessages;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public RetainedMessageStore(long maxBytes, int maxMessagesPerTopic) {
+        this.maxBytes = maxBytes;
+        this.maxMessagesPerTopic = maxMessagesPerTopic;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the topic, so subscribers never receive retained frame older than the last delivered one.
+     * Publisher should hold the lock while delivering and retaining the frame, subscriber while subscribing and
+     * receiving retained frames. Pattern locks all topics, locks are always acquired in the same order.
+     * @param topic topic name or pattern with wildcards
+     */
+    public void lock(String topic) {
+        if (!TopicTree.isPattern(topic)) {
+            this.locks[stripe(topic)].lock();
+            return;
+        }
+
+        for (ReentrantLock lock : this.locks) {
+            lock.lock();
+        }
+    }
+
+    public void unlock(String topic) {
+        if (!TopicTree.isPattern(topic)) {
+            this.locks[stripe(topic)].unlock();
+            return;
+        }
+
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            this.locks[i].unlock();
+        }
+    }
+
+    private static int stripe(String topic) {
+        int hash = topic.hashCode();
+        return (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+    }
+
+    public boolean isEnabled() {
+        return this.maxBytes > 0 && this.maxMessagesPerTopic > 0;
+    }
+
+    /**
+     * Replaces retained frame with the same topic and key. Caller keeps ownership of the given frame.
+     * Callers should hold the topic lock while delivering the frame, see lock().
+     * @param frame frame with topic and retain key set
+     */
+    public synchronized void retain(VortexGatePacket frame) {
+        int size = frame.getPayload().readableBytes();
+        if (size > this.maxBytes) {
+            return;
+        }
+
+        Map<String, RetainedFrame> frames = this.topics.computeIfAbsent(frame.getTopic(), topic -> new LinkedHashMap<>());
+        RetainedFrame previous = frames.remove(frame.getRetainKey());
+        if (previous != null) {
+            this.release(previous);
+        }
+
+        RetainedFrame retained = new RetainedFrame(frame.retainedDuplicate(), size);
+        frames.put(frame.getRetainKey(), retained);
+        this.evictionOrder.add(retained);
+        this.retainedBytes += size;
+
+        // Keys of the topic are kept in order of their last update too
+        if (frames.size() > this.maxMessagesPerTopic) {
+            this.evict(frames.values().iterator().next());
+        }
+
+        while (this.retainedBytes > this.maxBytes) {
+            this.evict(this.evictionOrder.iterator().next());
+        }
+    }
+
+    /**
+     * Sends all retained frames of the topic to the node.
+     * @param topic topic name or pattern with wildcards, see TopicTree
+     * @param filter subscription filter applied to the frames, may be null
+     * @return number of sent frames
+     */
+    public synchronized int deliver(VortexNode node, String topic, TopicFilter filter) {
+        if (!TopicTree.isPattern(topic)) {
+            return deliver(node, this.topics.get(topic), filter);
+        }
+
+        int delivered = 0;
+        for (Map.Entry<String, Map<String, RetainedFrame>> entry : this.topics.entrySet()) {
+            if (TopicTree.matches(topic, entry.getKey())) {
+                delivered += deliver(node, entry.getValue(), filter);
+            }
+        }
+        return delivered;
+    }
+
+    private static int deliver(VortexNode node, Map<String, RetainedFrame> frames, TopicFilter filter) {
+        if (frames == null) {
+            return 0;
+        }
+
+        int delivered = 0;
+        for (RetainedFrame retained : frames.values()) {
+            if (filter == null || TopicLog.test(filter, retained.frame)) {
+                node.sendGatePacket(retained.frame.retainedDuplicate());
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Removes retained frames of the topic.
+     * @param retainKey key of the removed frame or null to remove all frames of the topic
+     */
+    public synchronized void clear(String topic, String retainKey) {
+        Map<String, RetainedFrame> frames = this.topics.get(topic);
+        if (frames == null) {
+            return;
+        }
+
+        if (retainKey == null) {
+            for (RetainedFrame retained : frames.values()) {
+                this.release(retained);
+            }
+            this.topics.remove(topic);
+        } else {
+            RetainedFrame retained = frames.remove(retainKey);
+            if (retained != null) {
+                this.release(retained);
+            }
+            if (frames.isEmpty()) {
+                this.topics.remove(topic);
+            }
+        }
+    }
+
+    private void evict(RetainedFrame retained) {
+        Map<String, RetainedFrame> frames = this.topics.get(retained.frame.getTopic());
+        frames.remove(retained.frame.getRetainKey());
+        if (frames.isEmpty()) {
+            this.topics.remove(retained.frame.getTopic());
+        }
+        this.release(retained);
+        this.evictedMessages++;
+    }
+
+    private void release(RetainedFrame retained) {
+        this.evictionOrder.remove(retained);
+        this.retainedBytes -= retained.size;
+        retained.frame.release();
+    }
+
+    public synchronized void close() {
+        for (RetainedFrame retained : this.evictionOrder) {
+            retained.frame.release();
+        }
+        this.evictionOrder.clear();
+        this.topics.clear();
+        this.retainedBytes = 0;
+    }
+
+    public synchronized long getRetainedBytes() {
+        return this.retainedBytes;
+    }
+
+    public synchronized long getEvictedMessages() {
+        return this.evictedMessages;
+    }
+
+    public synchronized int getRetainedCount() {
+        return this.evictionOrder.size();
+    }
+
+    private static class RetainedFrame {
+        private final VortexGatePacket frame;
+        private final int size;
+
+        private RetainedFrame(VortexGatePacket frame, int size) {
+            this.frame = frame;
+            this.size = size;
+        }
+    }
+}
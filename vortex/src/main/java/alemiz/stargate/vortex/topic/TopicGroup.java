@@ -0,0 +1,248 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.data.GroupPolicy;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group of competing subscribers of single topic pattern. Each message is delivered to one member selected by the policy.
+ * Members are kept in immutable array which is replaced when membership changes.
+ */
+public class TopicGroup {
+
+    private static final VortexNode[] EMPTY = new VortexNode[0];
+    /**
+     * Number of points of each member on the consistent hash ring. More points spread keys more evenly.
+     */
+    private static final int VIRTUAL_NODES = 128;
+
+    private final String name;
+    private final GroupPolicy policy;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private volatile VortexNode[] members = EMPTY;
+    private volatile HashRing ring = HashRing.EMPTY;
+
+    public TopicGroup(String name, GroupPolicy policy) {
+        this.name = name;
+        this.policy = policy;
+    }
+
+    /**
+     * Selects member which should receive the message. The sender and closed nodes are never selected.
+     * @return selected member or null if there is none
+     */
+    public VortexNode select(VortexNode sender, VortexMessagePacket packet) {
+        VortexNode[] members = this.members;
+        switch (this.policy) {
+            case LEAST_QUEUED:
+                return this.selectLeastQueued(members, sender);
+            case LEAST_LATENCY:
+                return this.selectLeastLatency(members, sender);
+            case CONSISTENT_HASH:
+                if (packet.getRoutingKey() != null) {
+                    return this.selectConsistent(sender, packet.getRoutingKey());
+                }
+                return this.selectRoundRobin(members, sender);
+            default:
+                return this.selectRoundRobin(members, sender);
+        }
+    }
+
+    private VortexNode selectRoundRobin(VortexNode[] members, VortexNode sender) {
+        int start = this.counter.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < members.length; i++) {
+            VortexNode node = members[(start + i) % members.length];
+            if (isAvailable(node, sender)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private VortexNode selectLeastQueued(VortexNode[] members, VortexNode sender) {
+        VortexNode selected = null;
+        long selectedQueued = 0;
+        // Start at rotating position, so members with equally empty queues take turns
+        int start = this.counter.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < members.length; i++) {
+            VortexNode node = members[(start + i) % members.length];
+            if (!isAvailable(node, sender)) {
+                continue;
+            }
+
+            long queued = node.getOutboundQueue().getQueuedBytes();
+            if (selected == null || queued < selectedQueued) {
+                selected = node;
+                selectedQueued = queued;
+            }
+        }
+        return selected;
+    }
+
+    private VortexNode selectLeastLatency(VortexNode[] members, VortexNode sender) {
+        VortexNode selected = null;
+        long selectedLatency = 0;
+        for (VortexNode node : members) {
+            if (!isAvailable(node, sender)) {
+                continue;
+            }
+
+            // Latency is 0 until the first pong is received
+            long latency = node.getLatencyNanos() == 0 ? Long.MAX_VALUE : node.getLatencyNanos();
+            if (selected == null || latency < selectedLatency) {
+                selected = node;
+                selectedLatency = latency;
+            }
+        }
+        return selected;
+    }
+
+    private VortexNode selectConsistent(VortexNode sender, String routingKey) {
+        HashRing ring = this.ring;
+        long[] hashes = ring.hashes;
+        if (hashes.length == 0) {
+            return null;
+        }
+
+        int index = Arrays.binarySearch(hashes, hash(routingKey));
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        // Walk the ring clockwise, so keys of unavailable member move to its successor only
+        for (int i = 0; i < hashes.length; i++) {
+            VortexNode node = ring.owners[(index + i) % hashes.length];
+            if (isAvailable(node, sender)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAvailable(VortexNode node, VortexNode sender) {
+        return node != sender && !node.isClosed();
+    }
+
+    boolean addMember(VortexNode node) {
+        VortexNode[] members = this.members;
+        for (VortexNode member : members) {
+            if (member == node) {
+                return false;
+            }
+        }
+
+        VortexNode[] newMembers = Arrays.copyOf(members, members.length + 1);
+        newMembers[members.length] = node;
+        this.members = newMembers;
+        this.updateRing(newMembers);
+        return true;
+    }
+
+    boolean removeMember(VortexNode node) {
+        VortexNode[] members = this.members;
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] != node) {
+                continue;
+            }
+
+            VortexNode[] newMembers = new VortexNode[members.length - 1];
+            System.arraycopy(members, 0, newMembers, 0, i);
+            System.arraycopy(members, i + 1, newMembers, i, members.length - i - 1);
+            this.members = newMembers;
+            this.updateRing(newMembers);
+            return true;
+        }
+        return false;
+    }
+
+    private void updateRing(VortexNode[] members) {
+        if (this.policy == GroupPolicy.CONSISTENT_HASH) {
+            this.ring = HashRing.build(members);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a hash with final avalanche mixing, stable across restarts unlike String.hashCode() based maps.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public GroupPolicy getPolicy() {
+        return this.policy;
+    }
+
+    public VortexNode[] getMembers() {
+        return this.members;
+    }
+
+    private static class HashRing {
+        private static final HashRing EMPTY = new HashRing(new long[0], new VortexNode[0]);
+
+        private final long[] hashes;
+        private final VortexNode[] owners;
+
+        private HashRing(long[] hashes, VortexNode[] owners) {
+            this.hashes = hashes;
+            this.owners = owners;
+        }
+
+        private static HashRing build(VortexNode[] members) {
+            int size = members.length * VIRTUAL_NODES;
+            long[] points = new long[size];
+            VortexNode[] pointOwners = new VortexNode[size];
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < members.length; i++) {
+                for (int j = 0; j < VIRTUAL_NODES; j++) {
+                    int index = i * VIRTUAL_NODES + j;
+                    points[index] = hash(members[i].getNodeName() + "#" + j);
+                    pointOwners[index] = members[i];
+                    order[index] = index;
+                }
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(points[a], points[b]));
+
+            long[] hashes = new long[size];
+            VortexNode[] owners = new VortexNode[size];
+            for (int i = 0; i < size; i++) {
+                hashes[i] = points[order[i]];
+                owners[i] = pointOwners[order[i]];
+            }
+            return new HashRing(hashes, owners);
+        }
+    }
+}
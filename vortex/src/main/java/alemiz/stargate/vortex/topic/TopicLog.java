@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.filter.TopicFilter;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.packet.VortexRelayPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable log of single topic made of memory-mapped segments. Every published frame gets sequential offset starting at 1.
+ * Subscribers which resume from older offset are first replayed from the log and switched to live delivery
+ * once they catch up. Replay and live delivery are both done under the log lock, so subscriber never
+ * receives the same offset twice or out of order. Subscription filter is applied to replayed frames as well.
+ * Disk writes and allocation of the next segment are left to the maintenance thread, so publishers
+ * do not wait for them while holding the log lock.
+ */
+@Log4j2
+public class TopicLog {
+
+    public static final String OFFSETS_FILE = "offsets.properties";
+
+    /**
+     * Maximum number of records replayed in single event loop task.
+     */
+    private static final int REPLAY_BATCH = 256;
+    private static final long REPLAY_BACKOFF_MILLIS = 10;
+
+    private final String topic;
+    private final File directory;
+    private final int segmentSize;
+
+    private final List<TopicLogSegment> segments = new ArrayList<>();
+    private TopicLogSegment spareSegment;
+    private long nextOffset = 1;
+
+    private final Map<VortexNode, Replay> replays = new IdentityHashMap<>();
+    private final Map<String, Long> committedOffsets = new HashMap<>();
+    private boolean offsetsDirty;
+    private final Object flushLock = new Object();
+
+    public TopicLog(String topic, File directory, int segmentSize) throws IOException {
+        this.topic = topic;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create topic log directory " + directory);
+        }
+
+        File spareFile = new File(directory, TopicLogSegment.SPARE_FILE_NAME);
+        if (spareFile.exists() && !spareFile.delete()) {
+            log.warn("Unable to delete spare segment of topic log " + topic);
+        }
+
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(TopicLogSegment.FILE_SUFFIX));
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparing(File::getName));
+            for (File file : files) {
+                TopicLogSegment segment = TopicLogSegment.open(file);
+                this.segments.add(segment);
+                this.nextOffset = Math.max(this.nextOffset, segment.getNextOffset());
+            }
+        }
+        this.loadOffsets();
+    }
+
+    /**
+     * Appends the frame to the log and delivers it to all live subscribers except the sender.
+     * If the frame could not be appended, it is still delivered and its topic offset stays 0.
+     * @param sender node which published the frame
+     * @param frame encoded frame, it is not released by this method
+     * @param nodes subscribers of the topic
+     * @return number of nodes to which the frame was delivered
+     */
+    public synchronized int publish(VortexNode sender, VortexGatePacket frame, VortexNode[] nodes, ByteBufAllocator alloc) {
+        long offset = this.append(frame, alloc);
+        frame.setTopicOffset(offset);
+
+        int delivered = 0;
+        for (VortexNode node : nodes) {
+            // Nodes which are replaying will read the frame from the log
+            if (node != sender && (this.replays.isEmpty() || !this.replays.containsKey(node))) {
+                node.sendGatePacket(frame.retainedDuplicate());
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    private long append(VortexGatePacket frame, ByteBufAllocator alloc) {
+        long offset = this.nextOffset;
+        ByteBuf buffer = alloc.ioBuffer();
+        // Encoding consumes the payload, so duplicate is encoded instead
+        VortexGatePacket duplicate = frame.retainedDuplicate();
+        try {
+            duplicate.encodePayload(buffer);
+            if (TopicLogSegment.RECORD_HEADER_SIZE + buffer.readableBytes() > this.segmentSize) {
+                log.warn("Message of size " + buffer.readableBytes() + " does not fit to topic log segment of " + this.topic);
+                return 0;
+            }
+
+            long timestamp = System.currentTimeMillis();
+            TopicLogSegment segment = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+            if (segment == null || !segment.append(offset, timestamp, buffer)) {
+                // Full segment is forced to the disk by the next flush()
+                segment = this.nextSegment(offset);
+                this.segments.add(segment);
+                segment.append(offset, timestamp, buffer);
+            }
+            this.nextOffset++;
+            return offset;
+        } catch (IOException e) {
+            log.error("Unable to append message to topic log " + this.topic, e);
+            return 0;
+        } finally {
+            duplicate.release();
+            buffer.release();
+        }
+    }
+
+    private TopicLogSegment nextSegment(long baseOffset) throws IOException {
+        TopicLogSegment segment = this.spareSegment;
+        if (segment == null) {
+            // Maintenance thread did not allocate the segment yet
+            return TopicLogSegment.create(this.directory, baseOffset, this.segmentSize);
+        }
+
+        this.spareSegment = null;
+        segment.activate(this.directory, baseOffset);
+        return segment;
+    }
+
+    /**
+     * Allocates the next segment ahead of time once the active segment is half full.
+     * Called from the maintenance thread, so allocation does not block publishers.
+     */
+    public void prepareSpareSegment() throws IOException {
+        synchronized (this) {
+            TopicLogSegment active = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+            if (this.spareSegment != null || (active != null && active.getSize() < this.segmentSize / 2)) {
+                return;
+            }
+        }
+
+        TopicLogSegment segment = TopicLogSegment.createSpare(this.directory, this.segmentSize);
+        synchronized (this) {
+            if (this.spareSegment == null) {
+                this.spareSegment = segment;
+                return;
+            }
+        }
+        segment.delete();
+    }
+
+    /**
+     * Starts replaying the log to the node from the given offset. Until the node catches up, it receives no live messages.
+     * @param node subscribed node
+     * @param offset first replayed offset, 0 to resume after the offset acknowledged by the node or -1 to skip replay
+     * @param filter subscription filter applied to replayed frames, may be null
+     * @return if the log is replayed to the node
+     */
+    public synchronized boolean subscribe(VortexNode node, long offset, TopicFilter filter) {
+        if (offset < 0) {
+            // Subscribed from the latest offset
+            return false;
+        }
+
+        if (offset == 0) {
+            Long committed = this.committedOffsets.get(node.getNodeName());
+            if (committed == null) {
+                return false;
+            }
+            offset = committed + 1;
+        }
+
+        offset = Math.max(offset, this.getFirstOffset());
+        if (offset >= this.nextOffset) {
+            return false;
+        }
+
+        Replay replay = new Replay(node, offset, filter);
+        this.replays.put(node, replay);
+        node.getSession().getChannel().eventLoop().execute(() -> this.replay(replay));
+        return true;
+    }
+
+    public synchronized void unsubscribe(VortexNode node) {
+        this.replays.remove(node);
+    }
+
+    private void replay(Replay replay) {
+        VortexNode node = replay.node;
+        if (node.isClosed() || !node.getSubscribedTopics().contains(this.topic)) {
+            this.unsubscribe(node);
+            return;
+        }
+
+        // Do not fill outbound queue of a slow node, continue once it drains
+        if (!node.getSession().getChannel().isWritable()) {
+            node.getSession().getChannel().eventLoop().schedule(() -> this.replay(replay), REPLAY_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        synchronized (this) {
+            if (this.replays.get(node) != replay) {
+                return;
+            }
+
+            for (int i = 0; i < REPLAY_BATCH && replay.offset < this.nextOffset; i++) {
+                // Records might have been removed by retention meanwhile
+                replay.offset = Math.max(replay.offset, this.getFirstOffset());
+                VortexGatePacket frame = this.read(replay.offset);
+                if (frame != null && (replay.filter == null || test(replay.filter, frame))) {
+                    node.sendGatePacket(frame);
+                } else if (frame != null) {
+                    frame.release();
+                }
+                replay.offset++;
+            }
+
+            if (replay.offset >= this.nextOffset) {
+                // Caught up, following messages are delivered live
+                this.replays.remove(node);
+                return;
+            }
+        }
+        node.getSession().getChannel().eventLoop().execute(() -> this.replay(replay));
+    }
+
+    /**
+     * Reads frame from the log. Payload of the frame references the mapped segment, so it is not copied.
+     * @return frame with topic offset set or null if the offset is not in the log
+     */
+    private VortexGatePacket read(long offset) {
+        TopicLogSegment segment = this.findSegment(offset);
+        ByteBuf buffer = segment == null ? null : segment.read(offset);
+        if (buffer == null) {
+            return null;
+        }
+
+        try {
+            VortexGatePacket frame = new VortexGatePacket();
+            frame.decodePayload(buffer);
+            frame.setTopicOffset(offset);
+            return frame;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    static boolean test(TopicFilter filter, VortexGatePacket frame) {
+        // Relay packet exposes the frame header to the filter without decoding the payload
+        VortexRelayPacket packet = new VortexRelayPacket(frame);
+        try {
+            return filter.test(packet);
+        } finally {
+            packet.release();
+        }
+    }
+
+    private TopicLogSegment findSegment(long offset) {
+        int low = 0;
+        int high = this.segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            TopicLogSegment segment = this.segments.get(middle);
+            if (offset < segment.getBaseOffset()) {
+                high = middle - 1;
+            } else if (offset >= segment.getNextOffset()) {
+                low = middle + 1;
+            } else {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void commit(String nodeName, long offset) {
+        Long previous = this.committedOffsets.get(nodeName);
+        if (previous == null || previous < offset) {
+            this.committedOffsets.put(nodeName, Math.min(offset, this.nextOffset - 1));
+            this.offsetsDirty = true;
+        }
+    }
+
+    /**
+     * Deletes oldest segments which exceed retention. Active segment is never deleted.
+     * @param retentionBytes maximum size of the log or 0 for unlimited
+     * @param retentionMillis maximum age of the log records or 0 for unlimited
+     */
+    public synchronized void applyRetention(long retentionBytes, long retentionMillis) {
+        long totalSize = 0;
+        for (TopicLogSegment segment : this.segments) {
+            totalSize += segment.getSize();
+        }
+
+        long minTimestamp = System.currentTimeMillis() - retentionMillis;
+        while (this.segments.size() > 1) {
+            TopicLogSegment segment = this.segments.get(0);
+            boolean expired = retentionMillis > 0 && segment.getLastTimestamp() < minTimestamp;
+            if (!expired && (retentionBytes <= 0 || totalSize <= retentionBytes)) {
+                break;
+            }
+
+            this.segments.remove(0);
+            totalSize -= segment.getSize();
+            if (!segment.delete()) {
+                log.warn("Unable to delete topic log segment " + segment.getBaseOffset() + " of " + this.topic);
+            }
+        }
+    }
+
+    /**
+     * Writes dirty pages and acknowledged offsets to the disk. Pages are forced outside of the log lock.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            this.flush0();
+        }
+    }
+
+    private void flush0() {
+        List<TopicLogSegment> dirtySegments = new ArrayList<>(2);
+        Properties offsets = null;
+        synchronized (this) {
+            for (TopicLogSegment segment : this.segments) {
+                if (segment.clearDirty()) {
+                    dirtySegments.add(segment);
+                }
+            }
+
+            if (this.offsetsDirty) {
+                this.offsetsDirty = false;
+                offsets = new Properties();
+                for (Map.Entry<String, Long> entry : this.committedOffsets.entrySet()) {
+                    offsets.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+                }
+            }
+        }
+
+        for (TopicLogSegment segment : dirtySegments) {
+            segment.force();
+        }
+
+        if (offsets != null) {
+            this.saveOffsets(offsets);
+        }
+    }
+
+    /**
+     * Flushes the log and deletes the spare segment.
+     */
+    public void close() {
+        this.flush();
+        synchronized (this) {
+            if (this.spareSegment != null && !this.spareSegment.delete()) {
+                log.warn("Unable to delete spare segment of topic log " + this.topic);
+            }
+            this.spareSegment = null;
+        }
+    }
+
+    private void loadOffsets() throws IOException {
+        File file = new File(this.directory, OFFSETS_FILE);
+        if (!file.exists()) {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream stream = new FileInputStream(file)) {
+            properties.load(stream);
+        }
+        for (String nodeName : properties.stringPropertyNames()) {
+            this.committedOffsets.put(nodeName, Long.parseLong(properties.getProperty(nodeName)));
+        }
+    }
+
+    private void saveOffsets(Properties properties) {
+        // Write to temporary file first, so offsets are not lost if the broker crashes while writing
+        File file = new File(this.directory, OFFSETS_FILE);
+        File tempFile = new File(this.directory, OFFSETS_FILE + ".tmp");
+        try (OutputStream stream = new FileOutputStream(tempFile)) {
+            properties.store(stream, "Acknowledged offsets of topic " + this.topic);
+        } catch (IOException e) {
+            log.error("Unable to save acknowledged offsets of topic " + this.topic, e);
+            return;
+        }
+
+        if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+            log.error("Unable to replace acknowledged offsets file of topic " + this.topic);
+        }
+    }
+
+    public synchronized long getFirstOffset() {
+        return this.segments.isEmpty() ? this.nextOffset : this.segments.get(0).getBaseOffset();
+    }
+
+    public synchronized long getNextOffset() {
+        return this.nextOffset;
+    }
+
+    public String getTopic() {
+        return this.topic;
+    }
+
+    private static class Replay {
+        private final VortexNode node;
+        private final TopicFilter filter;
+        private long offset;
+
+        private Replay(VortexNode node, long offset, TopicFilter filter) {
+            this.node = node;
+            this.offset = offset;
+            this.filter = filter;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.compression.CompressionPolicy;
+import alemiz.stargate.vortex.common.compression.VortexDictionary;
+import alemiz.stargate.vortex.common.compression.ZstdContext;
+import alemiz.stargate.vortex.common.data.VortexSettings;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.pipeline.VortexPacketEncoder;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import alemiz.stargate.vortex.common.protocol.packet.VortexRelayPacket;
+import alemiz.stargate.vortex.common.protocol.stargate.VortexGatePacket;
+import io.netty.buffer.ByteBuf;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens logs of durable topics and periodically writes them to the disk and applies retention.
+ * Segments are forced to the disk once per second rather than after every message and next segments
+ * are allocated ahead of time on the same thread.
+ */
+@Log4j2
+public class TopicLogManager {
+
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 1000;
+
+    private final VortexSettings settings;
+    private final CompressionPolicy compressionPolicy;
+    private final File directory;
+
+    private final Map<String, TopicLog> logs = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    public TopicLogManager(VortexSettings settings, CompressionPolicy compressionPolicy) {
+        this.settings = settings;
+        this.compressionPolicy = compressionPolicy;
+        this.directory = new File(settings.getTopicLogDirectory());
+    }
+
+    public synchronized void start() {
+        if (this.executor != null || this.settings.getDurableTopics().isEmpty()) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vortex-topic-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL_MILLIS, MAINTENANCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return log of the topic or null if the topic is not durable
+     */
+    public TopicLog getLog(String topic) {
+        if (!this.settings.getDurableTopics().contains(topic)) {
+            return null;
+        }
+
+        TopicLog topicLog = this.logs.get(topic);
+        if (topicLog != null) {
+            return topicLog;
+        }
+
+        synchronized (this) {
+            topicLog = this.logs.get(topic);
+            if (topicLog == null) {
+                try {
+                    topicLog = new TopicLog(topic, new File(this.directory, encodeName(topic)), this.settings.getTopicLogSegmentSize());
+                } catch (IOException e) {
+                    log.error("Unable to open log of durable topic " + topic, e);
+                    return null;
+                }
+                this.logs.put(topic, topicLog);
+            }
+            return topicLog;
+        }
+    }
+
+    /**
+     * Encodes the message to frame which can be stored in the topic log.
+     * Logged frames must not depend on dictionaries, which do not survive restart.
+     * @return frame which should be released by the caller
+     */
+    public VortexGatePacket encodeFrame(VortexNode sender, VortexMessagePacket packet) {
+        if (packet.getSenderNode() == null) {
+            packet.setSenderNode(sender.getNodeName());
+        }
+
+        if (!(packet instanceof VortexRelayPacket)) {
+            return VortexPacketEncoder.encodePacket(sender.getSession().getChannel().alloc(), packet, this.compressionPolicy, null);
+        }
+
+        VortexGatePacket frame = ((VortexRelayPacket) packet).toGatePacket();
+        if (frame.getDictionaryId() != 0) {
+            try {
+                this.removeDictionary(frame);
+            } catch (Throwable t) {
+                frame.release();
+                throw t;
+            }
+        }
+        return frame;
+    }
+
+    private void removeDictionary(VortexGatePacket frame) {
+        VortexDictionary dictionary = this.compressionPolicy.getDictionary(frame.getDictionaryId());
+        if (dictionary == null) {
+            throw new IllegalStateException("Unknown compression dictionary " + frame.getDictionaryId());
+        }
+
+        ZstdContext context = ZstdContext.get();
+        ByteBuf payload = frame.getPayload();
+        ByteBuf decompressed = context.decompress(payload, (int) frame.getUncompressedSize(), dictionary);
+        try {
+            frame.setPayload(context.compress(decompressed, this.compressionPolicy.getCompressionLevel(), null));
+            frame.setDictionaryId(0);
+            payload.release();
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    public void unsubscribe(VortexNode node, String topic) {
+        TopicLog topicLog = this.logs.get(topic);
+        if (topicLog != null) {
+            topicLog.unsubscribe(node);
+        }
+    }
+
+    private void maintain() {
+        for (TopicLog topicLog : this.logs.values()) {
+            try {
+                topicLog.flush();
+                topicLog.prepareSpareSegment();
+                topicLog.applyRetention(this.settings.getTopicLogRetentionBytes(), this.settings.getTopicLogRetentionMillis());
+            } catch (Exception e) {
+                log.error("Unable to maintain log of topic " + topicLog.getTopic(), e);
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+            this.executor = null;
+        }
+
+        for (TopicLog topicLog : this.logs.values()) {
+            topicLog.close();
+        }
+    }
+
+    private static String encodeName(String topic) {
+        try {
+            return URLEncoder.encode(topic, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Single memory-mapped file of the topic log. Records are appended sequentially:
+ * [int size][long offset][long timestamp][encoded VortexGatePacket], where size covers offset, timestamp and the frame.
+ * Size is written last, so partially written record is not visible after crash. Size of 0 marks the end of the segment.
+ * Segment is not thread safe, access is synchronized by the owning TopicLog. Only force() may be called concurrently.
+ * Spare segments are allocated ahead of time under temporary name and renamed once they become active.
+ */
+public class TopicLogSegment {
+
+    public static final String FILE_SUFFIX = ".log";
+    public static final String SPARE_FILE_NAME = "next.spare";
+    public static final int RECORD_HEADER_SIZE = 4 + 8 + 8;
+    /**
+     * Position of every INDEX_INTERVAL-th record is kept in memory.
+     */
+    private static final int INDEX_INTERVAL = 32;
+
+    private File file;
+    private long baseOffset;
+    private final MappedByteBuffer buffer;
+    private final IntArrayList index = new IntArrayList();
+
+    private int position;
+    private long nextOffset;
+    private long lastTimestamp;
+    private boolean dirty;
+
+    private TopicLogSegment(File file, long baseOffset, MappedByteBuffer buffer) {
+        this.file = file;
+        this.baseOffset = baseOffset;
+        this.buffer = buffer;
+        this.nextOffset = baseOffset;
+        this.lastTimestamp = file.lastModified();
+    }
+
+    public static TopicLogSegment create(File directory, long baseOffset, int capacity) throws IOException {
+        File file = new File(directory, String.format("%020d", baseOffset) + FILE_SUFFIX);
+        return new TopicLogSegment(file, baseOffset, map(file, capacity));
+    }
+
+    /**
+     * Allocates and maps empty segment which is not used yet, see activate().
+     */
+    public static TopicLogSegment createSpare(File directory, int capacity) throws IOException {
+        File file = new File(directory, SPARE_FILE_NAME);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to delete old spare segment " + file);
+        }
+        return new TopicLogSegment(file, 0, map(file, capacity));
+    }
+
+    /**
+     * Renames spare segment to the name of its base offset, so it is opened as part of the log after restart.
+     */
+    public void activate(File directory, long baseOffset) throws IOException {
+        File file = new File(directory, String.format("%020d", baseOffset) + FILE_SUFFIX);
+        if (!this.file.renameTo(file)) {
+            throw new IOException("Unable to rename spare segment to " + file);
+        }
+        this.file = file;
+        this.baseOffset = baseOffset;
+        this.nextOffset = baseOffset;
+        this.lastTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Opens existing segment and scans its records to restore the write position.
+     */
+    public static TopicLogSegment open(File file) throws IOException {
+        String name = file.getName();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - FILE_SUFFIX.length()));
+
+        TopicLogSegment segment = new TopicLogSegment(file, baseOffset, map(file, (int) file.length()));
+        segment.recover();
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, int capacity) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() < capacity) {
+                raf.setLength(capacity);
+            }
+            // Mapping stays valid after the channel is closed
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private void recover() {
+        int capacity = this.buffer.capacity();
+        while (this.position + RECORD_HEADER_SIZE <= capacity) {
+            int size = this.buffer.getInt(this.position);
+            if (size < RECORD_HEADER_SIZE - 4 || this.position + 4 + size > capacity) {
+                break;
+            }
+
+            long offset = this.buffer.getLong(this.position + 4);
+            if (offset != this.nextOffset) {
+                break;
+            }
+            this.indexRecord(offset);
+            this.lastTimestamp = this.buffer.getLong(this.position + 12);
+            this.nextOffset = offset + 1;
+            this.position += 4 + size;
+        }
+    }
+
+    /**
+     * @param frame encoded frame
+     * @return if the record was appended, false if the segment is full
+     */
+    public boolean append(long offset, long timestamp, ByteBuf frame) {
+        int frameSize = frame.readableBytes();
+        if (this.position + RECORD_HEADER_SIZE + frameSize > this.buffer.capacity()) {
+            return false;
+        }
+
+        ByteBuffer target = this.buffer.duplicate();
+        target.limit(this.position + RECORD_HEADER_SIZE + frameSize).position(this.position + 4);
+        target.putLong(offset);
+        target.putLong(timestamp);
+        frame.getBytes(frame.readerIndex(), target);
+        this.buffer.putInt(this.position, 8 + 8 + frameSize);
+
+        this.indexRecord(offset);
+        this.position += RECORD_HEADER_SIZE + frameSize;
+        this.nextOffset = offset + 1;
+        this.lastTimestamp = timestamp;
+        this.dirty = true;
+        return true;
+    }
+
+    private void indexRecord(long offset) {
+        if ((offset - this.baseOffset) % INDEX_INTERVAL == 0) {
+            this.index.add(this.position);
+        }
+    }
+
+    /**
+     * Returns encoded frame of the record without copying. Buffer shares memory with the mapped file.
+     * @param offset offset of the record
+     * @return frame of the record or null if the segment does not contain the offset
+     */
+    public ByteBuf read(long offset) {
+        if (offset < this.baseOffset || offset >= this.nextOffset) {
+            return null;
+        }
+
+        int relative = (int) (offset - this.baseOffset);
+        int position = this.index.getInt(relative / INDEX_INTERVAL);
+        for (int i = relative % INDEX_INTERVAL; i > 0; i--) {
+            position += 4 + this.buffer.getInt(position);
+        }
+
+        int size = this.buffer.getInt(position);
+        ByteBuffer region = this.buffer.duplicate();
+        region.position(position + RECORD_HEADER_SIZE).limit(position + 4 + size);
+        return Unpooled.wrappedBuffer(region.slice());
+    }
+
+    /**
+     * @return if records were appended since the last call
+     */
+    public boolean clearDirty() {
+        boolean dirty = this.dirty;
+        this.dirty = false;
+        return dirty;
+    }
+
+    /**
+     * Writes modified pages of the mapped file to the disk. Can be called outside of the log lock.
+     */
+    public void force() {
+        this.buffer.force();
+    }
+
+    public boolean delete() {
+        // Mapped memory is released by GC once no buffer references it
+        return this.file.delete();
+    }
+
+    public long getBaseOffset() {
+        return this.baseOffset;
+    }
+
+    public long getNextOffset() {
+        return this.nextOffset;
+    }
+
+    public long getLastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    public int getSize() {
+        return this.position;
+    }
+
+    public boolean isEmpty() {
+        return this.nextOffset == this.baseOffset;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.filter.TopicFilter;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Resolved subscribers of single published topic: nodes which receive every message and groups
+ * of which only one member receives the message. Instances are immutable and replaced when subscriptions change.
+ */
+public class TopicRoute {
+
+    public static final TopicRoute EMPTY = new TopicRoute(new VortexNode[0], null, null, new TopicGroup[0]);
+
+    private final VortexNode[] nodes;
+    /**
+     * Filters of the nodes at the same index, null if none of the nodes has a filter.
+     */
+    private final TopicFilter[] filters;
+    /**
+     * Nodes which subscribed with conflation, null if there are none.
+     */
+    private final Set<VortexNode> conflatingNodes;
+    private final TopicGroup[] groups;
+
+    public TopicRoute(VortexNode[] nodes, TopicFilter[] filters, Set<VortexNode> conflatingNodes, TopicGroup[] groups) {
+        this.nodes = nodes;
+        this.filters = filters;
+        this.conflatingNodes = conflatingNodes;
+        this.groups = groups;
+    }
+
+    /**
+     * @return nodes which should receive the message, returned array must not be modified
+     */
+    public VortexNode[] selectTargets(VortexNode sender, VortexMessagePacket packet) {
+        if (this.filters == null && this.groups.length == 0) {
+            return this.nodes;
+        }
+
+        VortexNode[] targets = new VortexNode[this.nodes.length + this.groups.length];
+        int count = 0;
+        for (int i = 0; i < this.nodes.length; i++) {
+            TopicFilter filter = this.filters == null ? null : this.filters[i];
+            if (filter == null || filter.test(packet)) {
+                targets[count++] = this.nodes[i];
+            }
+        }
+
+        for (TopicGroup group : this.groups) {
+            VortexNode node = group.select(sender, packet);
+            if (node != null) {
+                targets[count++] = node;
+            }
+        }
+        return count == targets.length ? targets : Arrays.copyOf(targets, count);
+    }
+
+    public boolean hasConflatingNodes() {
+        return this.conflatingNodes != null;
+    }
+
+    public boolean isConflating(VortexNode node) {
+        return this.conflatingNodes != null && this.conflatingNodes.contains(node);
+    }
+
+    public boolean isEmpty() {
+        return this.nodes.length == 0 && this.groups.length == 0;
+    }
+
+    /**
+     * @return nodes which receive every message, returned array must not be modified
+     */
+    public VortexNode[] getNodes() {
+        return this.nodes;
+    }
+
+    public TopicGroup[] getGroups() {
+        return this.groups;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.data.GroupPolicy;
+import alemiz.stargate.vortex.common.filter.TopicFilter;
+import alemiz.stargate.vortex.common.node.VortexNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trie of topic subscriptions. Topics are hierarchical, levels are separated by dot.
+ * Subscription pattern may contain wildcards: "*" matches exactly one level and "#" as the last level
+ * matches any number of remaining levels, including none. For example "lobby.eu.*" matches "lobby.eu.1"
+ * and "games.#" matches "games" and "games.bedwars.eu".
+ * Nodes can also subscribe as members of a named group, each message is then delivered to only one member of the group.
+ * Conflating subscribers receive only the latest not yet written message of each conflation key.
+ * Subscribers of each published topic are resolved once and cached as immutable TopicRoute. When subscriptions change,
+ * routes of affected topics are replaced, so publishing neither walks the trie nor allocates.
+ */
+public class TopicTree {
+
+    public static final char LEVEL_SEPARATOR = '.';
+    public static final String SINGLE_LEVEL_WILDCARD = "*";
+    public static final String MULTI_LEVEL_WILDCARD = "#";
+
+    /**
+     * Cache is cleared once it holds this many topics, so publishing to many unique topics can not exhaust memory.
+     */
+    private static final int MAX_CACHED_TOPICS = 16384;
+
+    private final TreeNode root = new TreeNode();
+    private final Map<String, TopicRoute> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param pattern topic name or pattern with wildcards
+     * @return if the node was not subscribed to the pattern yet
+     */
+    public boolean subscribe(String pattern, VortexNode node) {
+        return this.subscribe(pattern, node, null, null, null, false);
+    }
+
+    /**
+     * @param pattern topic name or pattern with wildcards
+     * @param group name of the group of competing subscribers or null to receive all messages
+     * @param policy policy used if the group does not exist yet
+     * @param filter filter of messages delivered to the node or null, ignored for group members
+     * @param conflate if messages with conflation key should replace older not yet written messages, ignored for group members
+     * @return if the node was not subscribed to the pattern yet
+     * @throws IllegalArgumentException if "#" is not the last level of the pattern
+     */
+    public synchronized boolean subscribe(String pattern, VortexNode node, String group, GroupPolicy policy, TopicFilter filter, boolean conflate) {
+        String[] levels = split(pattern);
+        for (int i = 0; i < levels.length - 1; i++) {
+            if (levels[i].equals(MULTI_LEVEL_WILDCARD)) {
+                throw new IllegalArgumentException("Wildcard " + MULTI_LEVEL_WILDCARD + " must be the last level of pattern " + pattern);
+            }
+        }
+
+        TreeNode treeNode = this.root;
+        for (String level : levels) {
+            treeNode = treeNode.children.computeIfAbsent(level, key -> new TreeNode());
+        }
+
+        boolean added;
+        if (group == null || group.isEmpty()) {
+            Subscriber previous = treeNode.subscribers.put(node, new Subscriber(filter, conflate));
+            added = previous == null;
+            // Options of existing subscription might have changed
+            if (previous != null && (previous.filter != filter || previous.conflate != conflate)) {
+                this.refresh(pattern);
+            }
+        } else {
+            added = treeNode.groups.computeIfAbsent(group, name -> new TopicGroup(name, policy)).addMember(node);
+        }
+
+        if (added) {
+            this.refresh(pattern);
+        }
+        return added;
+    }
+
+    /**
+     * @param pattern topic name or pattern with wildcards
+     * @return if the node is subscribed to the pattern directly, not as a group member
+     */
+    public synchronized boolean isSubscribed(String pattern, VortexNode node) {
+        TreeNode treeNode = this.root;
+        for (String level : split(pattern)) {
+            if ((treeNode = treeNode.children.get(level)) == null) {
+                return false;
+            }
+        }
+        return treeNode.subscribers.containsKey(node);
+    }
+
+    /**
+     * @param pattern topic name or pattern with wildcards
+     * @return if the node was subscribed to the pattern
+     */
+    public synchronized boolean unsubscribe(String pattern, VortexNode node) {
+        String[] levels = split(pattern);
+        TreeNode[] path = new TreeNode[levels.length + 1];
+        path[0] = this.root;
+        for (int i = 0; i < levels.length; i++) {
+            if ((path[i + 1] = path[i].children.get(levels[i])) == null) {
+                return false;
+            }
+        }
+
+        if (!path[levels.length].removeSubscriber(node)) {
+            return false;
+        }
+
+        // Remove branches which have no subscribers left
+        for (int i = levels.length; i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].children.remove(levels[i - 1]);
+        }
+        this.refresh(pattern);
+        return true;
+    }
+
+    /**
+     * Replaces cached routes of all topics matched by the changed pattern.
+     */
+    private void refresh(String pattern) {
+        if (!isPattern(pattern)) {
+            if (this.cache.containsKey(pattern)) {
+                this.cache.put(pattern, this.collect(pattern));
+            }
+            return;
+        }
+
+        for (String topic : this.cache.keySet()) {
+            if (matches(pattern, topic)) {
+                this.cache.put(topic, this.collect(topic));
+            }
+        }
+    }
+
+    /**
+     * @param topic published topic name
+     * @return subscribers of the topic and of all patterns matching it, never null
+     */
+    public TopicRoute match(String topic) {
+        TopicRoute route = this.cache.get(topic);
+        if (route == null) {
+            route = this.resolve(topic);
+        }
+        return route;
+    }
+
+    private synchronized TopicRoute resolve(String topic) {
+        // Subscriptions change under the same lock, so stale result is never cached
+        TopicRoute route = this.cache.get(topic);
+        if (route != null) {
+            return route;
+        }
+
+        route = this.collect(topic);
+        if (this.cache.size() >= MAX_CACHED_TOPICS) {
+            this.cache.clear();
+        }
+        this.cache.put(topic, route);
+        return route;
+    }
+
+    private TopicRoute collect(String topic) {
+        Map<VortexNode, Subscriber> nodes = new LinkedHashMap<>();
+        Set<TopicGroup> groups = new LinkedHashSet<>();
+        collect(this.root, split(topic), 0, nodes, groups);
+        if (nodes.isEmpty() && groups.isEmpty()) {
+            return TopicRoute.EMPTY;
+        }
+
+        VortexNode[] nodeArray = new VortexNode[nodes.size()];
+        TopicFilter[] filters = null;
+        Set<VortexNode> conflating = null;
+        int i = 0;
+        for (Map.Entry<VortexNode, Subscriber> entry : nodes.entrySet()) {
+            VortexNode node = nodeArray[i] = entry.getKey();
+            Subscriber subscriber = entry.getValue();
+            // Filters and conflating nodes are kept only if any node has them, so plain topics skip the checks
+            if (subscriber.filter != null) {
+                if (filters == null) {
+                    filters = new TopicFilter[nodeArray.length];
+                }
+                filters[i] = subscriber.filter;
+            }
+            if (subscriber.conflate) {
+                if (conflating == null) {
+                    conflating = Collections.newSetFromMap(new IdentityHashMap<>());
+                }
+                conflating.add(node);
+            }
+            i++;
+        }
+        return new TopicRoute(nodeArray, filters, conflating, groups.toArray(new TopicGroup[0]));
+    }
+
+    private static void collect(TreeNode treeNode, String[] levels, int index, Map<VortexNode, Subscriber> nodes, Set<TopicGroup> groups) {
+        TreeNode multiLevel = treeNode.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevel != null) {
+            addSubscribers(multiLevel, nodes, groups);
+        }
+
+        if (index == levels.length) {
+            addSubscribers(treeNode, nodes, groups);
+            return;
+        }
+
+        TreeNode child = treeNode.children.get(levels[index]);
+        if (child != null) {
+            collect(child, levels, index + 1, nodes, groups);
+        }
+
+        TreeNode singleLevel = treeNode.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevel != null && singleLevel != child) {
+            collect(singleLevel, levels, index + 1, nodes, groups);
+        }
+    }
+
+    private static void addSubscribers(TreeNode treeNode, Map<VortexNode, Subscriber> nodes, Set<TopicGroup> groups) {
+        for (Map.Entry<VortexNode, Subscriber> entry : treeNode.subscribers.entrySet()) {
+            Subscriber subscriber = entry.getValue();
+            Subscriber previous = nodes.putIfAbsent(entry.getKey(), subscriber);
+            if (previous != null) {
+                // Node matched by multiple patterns receives the message if any of the filters matches
+                // and conflates only if all of the subscriptions do
+                TopicFilter filter = previous.filter == null || subscriber.filter == null ? null : TopicFilter.or(previous.filter, subscriber.filter);
+                nodes.put(entry.getKey(), new Subscriber(filter, previous.conflate && subscriber.conflate));
+            }
+        }
+        groups.addAll(treeNode.groups.values());
+    }
+
+    /**
+     * @return if the topic contains any wildcard level
+     */
+    public static boolean isPattern(String topic) {
+        for (String level : split(topic)) {
+            if (level.equals(SINGLE_LEVEL_WILDCARD) || level.equals(MULTI_LEVEL_WILDCARD)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return if the topic is matched by the subscription pattern
+     */
+    public static boolean matches(String pattern, String topic) {
+        String[] patternLevels = split(pattern);
+        String[] topicLevels = split(topic);
+        for (int i = 0; i < patternLevels.length; i++) {
+            if (patternLevels[i].equals(MULTI_LEVEL_WILDCARD)) {
+                return true;
+            }
+            if (i >= topicLevels.length || !(patternLevels[i].equals(SINGLE_LEVEL_WILDCARD) || patternLevels[i].equals(topicLevels[i]))) {
+                return false;
+            }
+        }
+        return patternLevels.length == topicLevels.length;
+    }
+
+    private static String[] split(String topic) {
+        int count = 1;
+        for (int i = 0; i < topic.length(); i++) {
+            if (topic.charAt(i) == LEVEL_SEPARATOR) {
+                count++;
+            }
+        }
+
+        String[] levels = new String[count];
+        int start = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int end = topic.indexOf(LEVEL_SEPARATOR, start);
+            levels[i] = topic.substring(start, end);
+            start = end + 1;
+        }
+        levels[count - 1] = topic.substring(start);
+        return levels;
+    }
+
+    private static class TreeNode {
+        private final Map<String, TreeNode> children = new HashMap<>();
+        private final Map<VortexNode, Subscriber> subscribers = new LinkedHashMap<>();
+        private final Map<String, TopicGroup> groups = new HashMap<>();
+
+        private boolean removeSubscriber(VortexNode node) {
+            if (this.subscribers.containsKey(node)) {
+                this.subscribers.remove(node);
+                return true;
+            }
+
+            Iterator<TopicGroup> iterator = this.groups.values().iterator();
+            while (iterator.hasNext()) {
+                TopicGroup group = iterator.next();
+                if (group.removeMember(node)) {
+                    if (group.getMembers().length == 0) {
+                        iterator.remove();
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return this.children.isEmpty() && this.subscribers.isEmpty() && this.groups.isEmpty();
+        }
+    }
+
+    private static class Subscriber {
+        /**
+         * Filter of delivered messages, null if the node receives all messages.
+         */
+        private final TopicFilter filter;
+        private final boolean conflate;
+
+        private Subscriber(TopicFilter filter, boolean conflate) {
+            this.filter = filter;
+            this.conflate = conflate;
+        }
+    }
+}
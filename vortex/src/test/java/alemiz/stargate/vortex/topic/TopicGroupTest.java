@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.data.GroupPolicy;
+import alemiz.stargate.vortex.common.node.VortexNode;
+import alemiz.stargate.vortex.common.protocol.packet.VortexMessagePacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TopicGroupTest {
+
+    private static final int KEYS = 1000;
+
+    private final VortexNode sender = mockNode("sender");
+    private final VortexNode[] members = {mockNode("node-1"), mockNode("node-2"), mockNode("node-3"), mockNode("node-4")};
+    private final VortexMessagePacket packet = mock(VortexMessagePacket.class);
+
+    @Test
+    public void testConsistentHashKeyStability() {
+        TopicGroup group = this.createGroup(this.members);
+        Map<String, VortexNode> owners = this.selectAll(group);
+        assertEquals(owners, this.selectAll(group));
+
+        // Ring depends only on member names, not on the order in which they joined
+        VortexNode[] reversed = {this.members[3], this.members[2], this.members[1], this.members[0]};
+        assertEquals(owners, this.selectAll(this.createGroup(reversed)));
+    }
+
+    @Test
+    public void testConsistentHashSpreadsKeys() {
+        Map<VortexNode, Integer> counts = new HashMap<>();
+        for (VortexNode owner : this.selectAll(this.createGroup(this.members)).values()) {
+            counts.merge(owner, 1, Integer::sum);
+        }
+
+        for (VortexNode member : this.members) {
+            assertTrue(counts.getOrDefault(member, 0) > KEYS / 10, "Member " + member.getNodeName() + " owns too few keys");
+        }
+    }
+
+    @Test
+    public void testConsistentHashMinimalMovementOnLeave() {
+        TopicGroup group = this.createGroup(this.members);
+        Map<String, VortexNode> before = this.selectAll(group);
+
+        VortexNode leaving = this.members[1];
+        assertTrue(group.removeMember(leaving));
+        Map<String, VortexNode> after = this.selectAll(group);
+
+        for (Map.Entry<String, VortexNode> entry : before.entrySet()) {
+            VortexNode owner = after.get(entry.getKey());
+            assertNotSame(leaving, owner);
+            if (entry.getValue() != leaving) {
+                assertSame(entry.getValue(), owner, "Key " + entry.getKey() + " moved although its owner stayed");
+            }
+        }
+    }
+
+    @Test
+    public void testConsistentHashSkipsClosedMember() {
+        TopicGroup group = this.createGroup(this.members);
+        Map<String, VortexNode> before = this.selectAll(group);
+
+        VortexNode closed = this.members[2];
+        when(closed.isClosed()).thenReturn(true);
+        Map<String, VortexNode> after = this.selectAll(group);
+
+        for (Map.Entry<String, VortexNode> entry : before.entrySet()) {
+            if (entry.getValue() == closed) {
+                assertNotSame(closed, after.get(entry.getKey()));
+            } else {
+                assertSame(entry.getValue(), after.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testSenderIsNeverSelected() {
+        TopicGroup group = this.createGroup(this.sender);
+        when(this.packet.getRoutingKey()).thenReturn("key");
+        assertNull(group.select(this.sender, this.packet));
+    }
+
+    private TopicGroup createGroup(VortexNode... members) {
+        TopicGroup group = new TopicGroup("workers", GroupPolicy.CONSISTENT_HASH);
+        for (VortexNode member : members) {
+            assertTrue(group.addMember(member));
+        }
+        return group;
+    }
+
+    private Map<String, VortexNode> selectAll(TopicGroup group) {
+        Map<String, VortexNode> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "player-" + i;
+            when(this.packet.getRoutingKey()).thenReturn(key);
+            VortexNode owner = group.select(this.sender, this.packet);
+            assertNotNull(owner);
+            owners.put(key, owner);
+        }
+        return owners;
+    }
+
+    private static VortexNode mockNode(String name) {
+        VortexNode node = mock(VortexNode.class);
+        when(node.getNodeName()).thenReturn(name);
+        return node;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 Alemiz
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License
+ */
+
+
+package alemiz.stargate.vortex.topic;
+
+import alemiz.stargate.vortex.common.node.VortexNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class TopicTreeTest {
+
+    private final VortexNode node = mock(VortexNode.class);
+    private final VortexNode otherNode = mock(VortexNode.class);
+
+    @Test
+    public void testExactMatch() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("lobby.eu", this.node);
+
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("lobby.eu").getNodes());
+        assertTrue(tree.match("lobby").isEmpty());
+        assertTrue(tree.match("lobby.eu.1").isEmpty());
+        assertTrue(tree.match("lobby.us").isEmpty());
+    }
+
+    @Test
+    public void testSingleLevelWildcard() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("lobby.*.players", this.node);
+
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("lobby.eu.players").getNodes());
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("lobby.us.players").getNodes());
+        assertTrue(tree.match("lobby.players").isEmpty());
+        assertTrue(tree.match("lobby.eu.1.players").isEmpty());
+        assertTrue(tree.match("lobby.eu.players.count").isEmpty());
+    }
+
+    @Test
+    public void testMultiLevelWildcard() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("games.#", this.node);
+
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("games").getNodes());
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("games.bedwars").getNodes());
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("games.bedwars.eu").getNodes());
+        assertTrue(tree.match("lobby.games").isEmpty());
+        assertTrue(tree.match("gamesx").isEmpty());
+    }
+
+    @Test
+    public void testMultiLevelWildcardMustBeLast() {
+        TopicTree tree = new TopicTree();
+        assertThrows(IllegalArgumentException.class, () -> tree.subscribe("games.#.eu", this.node));
+        assertThrows(IllegalArgumentException.class, () -> tree.subscribe("#.eu", this.node));
+        assertThrows(IllegalArgumentException.class, () -> tree.subscribe("games.#.eu", this.node, "workers", null, null, false));
+
+        assertTrue(tree.match("games.bedwars.eu").isEmpty());
+        assertFalse(tree.isSubscribed("games.#.eu", this.node));
+        assertTrue(tree.subscribe("#", this.node));
+    }
+
+    @Test
+    public void testOverlappingPatterns() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("games.#", this.node);
+        tree.subscribe("games.*", this.node);
+        tree.subscribe("games.bedwars", this.otherNode);
+
+        // Node matched by multiple patterns is delivered only once
+        assertArrayEquals(new VortexNode[]{this.node, this.otherNode}, tree.match("games.bedwars").getNodes());
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("games.skywars").getNodes());
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(TopicTree.matches("lobby.*", "lobby.eu"));
+        assertTrue(TopicTree.matches("lobby.#", "lobby"));
+        assertTrue(TopicTree.matches("#", "lobby.eu"));
+        assertFalse(TopicTree.matches("lobby.*", "lobby"));
+        assertFalse(TopicTree.matches("lobby.*", "lobby.eu.1"));
+        assertFalse(TopicTree.matches("lobby.eu", "lobby.us"));
+
+        assertTrue(TopicTree.isPattern("lobby.*"));
+        assertTrue(TopicTree.isPattern("#"));
+        assertFalse(TopicTree.isPattern("lobby.eu"));
+    }
+
+    @Test
+    public void testRouteIsCached() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("lobby.eu", this.node);
+
+        assertSame(tree.match("lobby.eu"), tree.match("lobby.eu"));
+    }
+
+    @Test
+    public void testCacheRefreshedWhenPatternAdded() {
+        TopicTree tree = new TopicTree();
+        assertTrue(tree.match("lobby.eu").isEmpty());
+        assertTrue(tree.match("games.bedwars").isEmpty());
+
+        tree.subscribe("lobby.*", this.node);
+        assertArrayEquals(new VortexNode[]{this.node}, tree.match("lobby.eu").getNodes());
+        assertTrue(tree.match("games.bedwars").isEmpty());
+
+        tree.subscribe("lobby.eu", this.otherNode);
+        assertArrayEquals(new VortexNode[]{this.otherNode, this.node}, tree.match("lobby.eu").getNodes());
+    }
+
+    @Test
+    public void testCacheRefreshedWhenPatternRemoved() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("lobby.#", this.node);
+        tree.subscribe("lobby.eu", this.otherNode);
+        assertArrayEquals(new VortexNode[]{this.node, this.otherNode}, tree.match("lobby.eu").getNodes());
+
+        assertTrue(tree.unsubscribe("lobby.#", this.node));
+        assertArrayEquals(new VortexNode[]{this.otherNode}, tree.match("lobby.eu").getNodes());
+
+        assertTrue(tree.unsubscribe("lobby.eu", this.otherNode));
+        assertTrue(tree.match("lobby.eu").isEmpty());
+        assertFalse(tree.unsubscribe("lobby.eu", this.otherNode));
+    }
+
+    @Test
+    public void testGroupSubscription() {
+        TopicTree tree = new TopicTree();
+        tree.subscribe("lobby.*", this.node, "workers", null, null, false);
+
+        TopicRoute route = tree.match("lobby.eu");
+        assertEquals(0, route.getNodes().length);
+        assertEquals(1, route.getGroups().length);
+        assertArrayEquals(new VortexNode[]{this.node}, route.getGroups()[0].getMembers());
+
+        assertTrue(tree.unsubscribe("lobby.*", this.node));
+        assertTrue(tree.match("lobby.eu").isEmpty());
+    }
+}